@@ -0,0 +1,89 @@
+package org.example.mst.bench;
+
+import org.example.mst.combiner.MinEdgeMessageCombiner;
+import org.example.mst.messages.MSTMessage;
+import org.apache.hadoop.io.LongWritable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phase 3 (HOOK) candidate reduction at the roots: every member of a component sends one
+ * candidate, and the root needs the lightest under the (weight, tieA, tieB) order. The component
+ * size follows the degree distribution. {@code combine} is the sender-side
+ * {@link MinEdgeMessageCombiner} path, {@code scan} the receiver-side loop of the HOOK phase.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CandidateReductionBenchmark {
+    @Param({"ROAD", "UNIFORM", "POWER_LAW"})
+    public DegreeDistribution degrees;
+
+    @Param({"10000"})
+    public int roots;
+
+    private MSTMessage[][] candidates;
+    private final MinEdgeMessageCombiner combiner = new MinEdgeMessageCombiner();
+    private final LongWritable rootId = new LongWritable();
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(42);
+        int[] sizes = degrees.degrees(roots, 42);
+        candidates = new MSTMessage[roots][];
+        for (int r = 0; r < roots; r++) {
+            candidates[r] = new MSTMessage[sizes[r]];
+            for (int i = 0; i < sizes[r]; i++) {
+                long a = rnd.nextInt(1 << 20);
+                long b = a + 1 + rnd.nextInt(1 << 10);
+                // integral weights, as in the DIMACS road graphs, so ties actually happen
+                candidates[r][i] = MSTMessage.candidate(r, rnd.nextInt(roots), rnd.nextInt(100), a, b);
+            }
+        }
+    }
+
+    @Benchmark
+    public void combine(Blackhole bh) {
+        for (int r = 0; r < roots; r++) {
+            rootId.set(r);
+            MSTMessage best = combiner.createInitialMessage();
+            for (MSTMessage m : candidates[r]) combiner.combine(rootId, best, m);
+            bh.consume(best.targetRootId);
+        }
+    }
+
+    @Benchmark
+    public void scan(Blackhole bh) {
+        for (int r = 0; r < roots; r++) {
+            double bestW = Double.POSITIVE_INFINITY;
+            long bestOtherRoot = -1;
+            long bestA = 0, bestB = 0;
+            for (MSTMessage m : candidates[r]) {
+                if (m.type != MSTMessage.CANDIDATE) continue;
+                if (m.srcRootId != r) continue;
+                if (MSTMessage.lighter(m.edgeWeight, m.tieA, m.tieB, bestW, bestA, bestB)) {
+                    bestW = m.edgeWeight;
+                    bestOtherRoot = m.targetRootId;
+                    bestA = m.tieA; bestB = m.tieB;
+                }
+            }
+            bh.consume(bestOtherRoot);
+        }
+    }
+}
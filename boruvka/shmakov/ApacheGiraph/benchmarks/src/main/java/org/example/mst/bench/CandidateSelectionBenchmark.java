@@ -0,0 +1,145 @@
+package org.example.mst.bench;
+
+import org.example.mst.BoruvkaComputation;
+import org.example.mst.edge.WeightSortedLongDoubleEdges;
+import org.example.mst.messages.MSTMessage;
+import org.example.mst.util.LongLongScratchMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phase 2 (CANDIDATE) per vertex: fill the neighbour-root map from the announces, then find the
+ * lightest edge leaving the component. {@code cursorScan} is the path the job takes
+ * ({@link BoruvkaComputation#advanceToForeignEdge}, cursor reset so every call scans from the
+ * start); {@code fullScan} is the generic loop over all edges used for other OutEdges types.
+ * {@code hashMapScan} is the original phase 2, a fresh {@code HashMap<Long, Long>} per vertex and
+ * a full scan; {@code gc.alloc.rate.norm} of it against the other two is the boxing and map
+ * allocation the scratch map removes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CandidateSelectionBenchmark {
+    @Param({"ROAD", "UNIFORM", "POWER_LAW"})
+    public DegreeDistribution degrees;
+
+    @Param({"10000"})
+    public int vertices;
+
+    /** Share of a vertex's neighbours already in its own component. */
+    @Param({"0.0", "0.5", "0.9"})
+    public double internalShare;
+
+    private WeightSortedLongDoubleEdges[] edges;
+    private long[][] announceSrc;
+    private long[][] announceRoot;
+    private final LongLongScratchMap nbrRoot = new LongLongScratchMap(16);
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(42);
+        int[] deg = degrees.degrees(vertices, 42);
+        edges = new WeightSortedLongDoubleEdges[vertices];
+        announceSrc = new long[vertices][];
+        announceRoot = new long[vertices][];
+        for (int v = 0; v < vertices; v++) {
+            WeightSortedLongDoubleEdges e = new WeightSortedLongDoubleEdges();
+            e.initialize(deg[v]);
+            announceSrc[v] = new long[deg[v]];
+            announceRoot[v] = new long[deg[v]];
+            for (int i = 0; i < deg[v]; i++) {
+                long nbr = rnd.nextInt(vertices);
+                e.add(nbr, rnd.nextDouble() * 1000);
+                announceSrc[v][i] = nbr;
+                announceRoot[v][i] = rnd.nextDouble() < internalShare ? v : vertices + nbr;
+            }
+            e.trim();
+            edges[v] = e;
+        }
+    }
+
+    private void fillRoots(int v) {
+        long[] src = announceSrc[v];
+        long[] root = announceRoot[v];
+        nbrRoot.clear(src.length);
+        for (int i = 0; i < src.length; i++) nbrRoot.put(src[i], root[i]);
+    }
+
+    @Benchmark
+    public void cursorScan(Blackhole bh) {
+        for (int v = 0; v < vertices; v++) {
+            fillRoots(v);
+            WeightSortedLongDoubleEdges e = edges[v];
+            e.setCursor(0);
+            int i = BoruvkaComputation.advanceToForeignEdge(e, nbrRoot, v);
+            bh.consume(i < e.size() ? e.weightAt(i) : Double.POSITIVE_INFINITY);
+        }
+    }
+
+    @Benchmark
+    public void fullScan(Blackhole bh) {
+        for (int v = 0; v < vertices; v++) {
+            fillRoots(v);
+            WeightSortedLongDoubleEdges e = edges[v];
+            double bestW = Double.POSITIVE_INFINITY;
+            long tieA = 0, tieB = 0;
+            for (int i = 0; i < e.size(); i++) {
+                long nbr = e.targetAt(i);
+                if (nbrRoot.get(nbr, v) == v) continue;
+                double w = e.weightAt(i);
+                long a = Math.min(v, nbr);
+                long b = Math.max(v, nbr);
+                if (MSTMessage.lighter(w, a, b, bestW, tieA, tieB)) {
+                    bestW = w;
+                    tieA = a; tieB = b;
+                }
+            }
+            bh.consume(bestW);
+        }
+    }
+
+    @Benchmark
+    public void hashMapScan(Blackhole bh) {
+        for (int v = 0; v < vertices; v++) {
+            long[] src = announceSrc[v];
+            long[] root = announceRoot[v];
+            Map<Long, Long> roots = new HashMap<>();
+            for (int i = 0; i < src.length; i++) roots.put(src[i], root[i]);
+
+            WeightSortedLongDoubleEdges e = edges[v];
+            double bestW = Double.POSITIVE_INFINITY;
+            long tieA = 0, tieB = 0;
+            for (int i = 0; i < e.size(); i++) {
+                long nbr = e.targetAt(i);
+                Long r = roots.get(nbr);
+                if (r == null || r == v) continue;
+                double w = e.weightAt(i);
+                long a = Math.min(v, nbr);
+                long b = Math.max(v, nbr);
+                if (MSTMessage.lighter(w, a, b, bestW, tieA, tieB)) {
+                    bestW = w;
+                    tieA = a; tieB = b;
+                }
+            }
+            bh.consume(bestW);
+        }
+    }
+}
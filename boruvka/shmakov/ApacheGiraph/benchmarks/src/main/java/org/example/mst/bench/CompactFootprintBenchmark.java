@@ -0,0 +1,157 @@
+package org.example.mst.bench;
+
+import org.apache.giraph.utils.UnsafeByteArrayOutputStream;
+import org.example.mst.CompactMSTVertexValue;
+import org.example.mst.MSTVertexValue;
+import org.example.mst.edge.WeightSortedIntFloatEdges;
+import org.example.mst.edge.WeightSortedLongDoubleEdges;
+import org.example.mst.messages.CompactMSTMessage;
+import org.example.mst.messages.MSTMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regular against compact job on the same graph. {@code loadRegular} and {@code loadCompact}
+ * build every vertex's value and sorted edge list the way loading does, so their
+ * {@code gc.alloc.rate.norm} is the heap the graph takes in each job. {@code writeRegular} and
+ * {@code writeCompact} encode one Boruvka round's traffic (see
+ * {@link MessageSerializationBenchmark}) with {@link MSTMessage} and {@link CompactMSTMessage};
+ * the byte counts of both are printed once per fork. Original ids are spread over
+ * {@code idSpread} times the vertex count, as in inputs with gaps in their numbering.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompactFootprintBenchmark {
+    @Param({"ROAD", "UNIFORM", "POWER_LAW"})
+    public DegreeDistribution degrees;
+
+    @Param({"10000"})
+    public int vertices;
+
+    @Param({"1", "1000"})
+    public int idSpread;
+
+    private int[][] targets;
+    private double[][] weights;
+    private MSTMessage[] regular;
+    private CompactMSTMessage[] compact;
+    private UnsafeByteArrayOutputStream out;
+    private long regularBytes;
+    private long compactBytes;
+    private long directedEdges;
+
+    @Setup
+    public void setup() throws IOException {
+        Random rnd = new Random(42);
+        int[] deg = degrees.degrees(vertices, 42);
+        targets = new int[vertices][];
+        weights = new double[vertices][];
+        List<MSTMessage> longs = new ArrayList<>();
+        List<CompactMSTMessage> ints = new ArrayList<>();
+        for (int v = 0; v < vertices; v++) {
+            targets[v] = new int[deg[v]];
+            weights[v] = new double[deg[v]];
+            for (int e = 0; e < deg[v]; e++) {
+                targets[v][e] = rnd.nextInt(vertices);
+                weights[v][e] = rnd.nextDouble() * 1000;
+            }
+            directedEdges += deg[v];
+
+            // the dense id of original id v * idSpread is v
+            int root = v - rnd.nextInt(Math.min(v, 64) + 1);
+            int nbr = rnd.nextInt(vertices);
+            double w = rnd.nextDouble() * 1000;
+            for (int e = 0; e < deg[v]; e++) {
+                longs.add(MSTMessage.announce(original(v), original(root)));
+                ints.add(CompactMSTMessage.announce(v, root));
+            }
+            longs.add(MSTMessage.candidate(original(root), original(nbr), w,
+                    original(Math.min(v, nbr)), original(Math.max(v, nbr))));
+            ints.add(CompactMSTMessage.candidate(root, nbr, (float) w, Math.min(v, nbr), Math.max(v, nbr)));
+            longs.add(MSTMessage.parentQuery(original(v)));
+            ints.add(CompactMSTMessage.parentQuery(v));
+            longs.add(MSTMessage.parentReply(original(v), original(root)));
+            ints.add(CompactMSTMessage.parentReply(v, root));
+        }
+        regular = longs.toArray(new MSTMessage[0]);
+        compact = ints.toArray(new CompactMSTMessage[0]);
+
+        out = new UnsafeByteArrayOutputStream(1 << 20);
+        regularBytes = writeRegular();
+        compactBytes = writeCompact();
+    }
+
+    private long original(int denseId) {
+        return (long) denseId * idSpread;
+    }
+
+    @TearDown
+    public void reportSizes() {
+        System.out.printf("%n%s, id spread %d: %d directed edges; %d messages, regular %d bytes, "
+                        + "compact %d bytes (%.2fx)%n",
+                degrees, idSpread, directedEdges, regular.length, regularBytes, compactBytes,
+                (double) regularBytes / compactBytes);
+    }
+
+    @Benchmark
+    public Object[] loadRegular() {
+        Object[] graph = new Object[2 * vertices];
+        for (int v = 0; v < vertices; v++) {
+            WeightSortedLongDoubleEdges e = new WeightSortedLongDoubleEdges();
+            e.initialize(targets[v].length);
+            for (int i = 0; i < targets[v].length; i++) e.add(original(targets[v][i]), weights[v][i]);
+            e.trim();
+            graph[2 * v] = new MSTVertexValue();
+            graph[2 * v + 1] = e;
+        }
+        return graph;
+    }
+
+    @Benchmark
+    public Object[] loadCompact() {
+        Object[] graph = new Object[2 * vertices];
+        for (int v = 0; v < vertices; v++) {
+            WeightSortedIntFloatEdges e = new WeightSortedIntFloatEdges();
+            e.initialize(targets[v].length);
+            for (int i = 0; i < targets[v].length; i++) e.add(targets[v][i], (float) weights[v][i]);
+            e.trim();
+            graph[2 * v] = new CompactMSTVertexValue();
+            graph[2 * v + 1] = e;
+        }
+        return graph;
+    }
+
+    @Benchmark
+    public int writeRegular() throws IOException {
+        out.reset();
+        for (MSTMessage m : regular) m.write(out);
+        return out.getPos();
+    }
+
+    @Benchmark
+    public int writeCompact() throws IOException {
+        out.reset();
+        for (CompactMSTMessage m : compact) m.write(out);
+        return out.getPos();
+    }
+}
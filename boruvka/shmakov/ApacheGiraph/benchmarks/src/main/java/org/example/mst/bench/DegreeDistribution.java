@@ -0,0 +1,44 @@
+package org.example.mst.bench;
+
+import java.util.Random;
+
+/**
+ * Shapes of the synthetic neighbourhoods the benchmarks run on. All of them are seeded, so
+ * every fork sees the same data.
+ */
+public enum DegreeDistribution {
+    /** Road networks: almost every vertex has 2-4 neighbours. */
+    ROAD {
+        @Override
+        int degree(Random rnd) {
+            return 2 + rnd.nextInt(3);
+        }
+    },
+    /** Erdos-Renyi-like graphs: degrees spread around a moderate mean. */
+    UNIFORM {
+        @Override
+        int degree(Random rnd) {
+            return 1 + rnd.nextInt(32);
+        }
+    },
+    /** Social and web graphs: mostly small degrees with a heavy tail of hubs (Pareto, alpha 1.5). */
+    POWER_LAW {
+        @Override
+        int degree(Random rnd) {
+            double d = 2.0 / Math.pow(1.0 - rnd.nextDouble(), 1.0 / 1.5);
+            return (int) Math.min(d, MAX_DEGREE);
+        }
+    };
+
+    static final int MAX_DEGREE = 100_000;
+
+    abstract int degree(Random rnd);
+
+    /** Degrees of {@code vertices} vertices, drawn from this distribution. */
+    public int[] degrees(int vertices, long seed) {
+        Random rnd = new Random(seed);
+        int[] d = new int[vertices];
+        for (int i = 0; i < vertices; i++) d[i] = degree(rnd);
+        return d;
+    }
+}
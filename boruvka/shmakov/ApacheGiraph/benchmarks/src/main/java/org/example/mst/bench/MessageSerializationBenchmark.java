@@ -0,0 +1,115 @@
+package org.example.mst.bench;
+
+import org.apache.giraph.utils.UnsafeByteArrayInputStream;
+import org.apache.giraph.utils.UnsafeByteArrayOutputStream;
+import org.example.mst.messages.MSTMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MSTMessage} wire encoding on the unsafe streams Giraph uses with
+ * {@code giraph.useUnsafeSerialization}. The batch is one Boruvka round's worth of traffic:
+ * an announce per edge, a candidate per vertex and a parent query/reply pair per vertex.
+ * {@link #writeFixedLayout} writes the same batch in the old layout (type byte, five longs and a
+ * double for every message, 49 bytes); both sizes are printed once per fork.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageSerializationBenchmark {
+    private static final int FIXED_LAYOUT_BYTES = 1 + 6 * 8;
+
+    @Param({"ROAD", "UNIFORM", "POWER_LAW"})
+    public DegreeDistribution degrees;
+
+    @Param({"10000"})
+    public int vertices;
+
+    private MSTMessage[] messages;
+    private UnsafeByteArrayOutputStream out;
+    private byte[] encoded;
+    private int encodedLength;
+    private final MSTMessage reused = new MSTMessage();
+    private UnsafeByteArrayOutputStream fixedOut;
+
+    @Setup
+    public void setup() throws IOException {
+        Random rnd = new Random(42);
+        int[] deg = degrees.degrees(vertices, 42);
+        List<MSTMessage> list = new ArrayList<>();
+        for (int v = 0; v < vertices; v++) {
+            long root = v - rnd.nextInt(Math.min(v, 64) + 1);
+            for (int e = 0; e < deg[v]; e++) list.add(MSTMessage.announce(v, root));
+            long nbr = rnd.nextInt(vertices);
+            list.add(MSTMessage.candidate(root, nbr, rnd.nextDouble() * 1000, Math.min(v, nbr), Math.max(v, nbr)));
+            list.add(MSTMessage.parentQuery(v));
+            list.add(MSTMessage.parentReply(v, root));
+        }
+        messages = list.toArray(new MSTMessage[0]);
+
+        out = new UnsafeByteArrayOutputStream(1 << 20);
+        for (MSTMessage m : messages) m.write(out);
+        encoded = out.toByteArray();
+        encodedLength = out.getPos();
+        fixedOut = new UnsafeByteArrayOutputStream(messages.length * FIXED_LAYOUT_BYTES);
+    }
+
+    @TearDown
+    public void reportSizes() {
+        long fixed = (long) messages.length * FIXED_LAYOUT_BYTES;
+        System.out.printf("%n%s: %d messages, varint %d bytes (%.1f per message), fixed layout %d bytes (%.1fx)%n",
+                degrees, messages.length, encodedLength, (double) encodedLength / messages.length,
+                fixed, (double) fixed / encodedLength);
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        out.reset();
+        for (MSTMessage m : messages) m.write(out);
+        return out.getPos();
+    }
+
+    @Benchmark
+    public int writeFixedLayout() throws IOException {
+        fixedOut.reset();
+        for (MSTMessage m : messages) {
+            fixedOut.writeByte(m.type);
+            fixedOut.writeLong(m.srcVertexId);
+            fixedOut.writeLong(m.srcRootId);
+            fixedOut.writeLong(m.targetRootId);
+            fixedOut.writeDouble(m.edgeWeight);
+            fixedOut.writeLong(m.tieA);
+            fixedOut.writeLong(m.tieB);
+        }
+        return fixedOut.getPos();
+    }
+
+    @Benchmark
+    public void read(Blackhole bh) throws IOException {
+        UnsafeByteArrayInputStream in = new UnsafeByteArrayInputStream(encoded, 0, encodedLength);
+        for (int i = 0; i < messages.length; i++) {
+            reused.readFields(in);
+            bh.consume(reused.srcVertexId ^ reused.targetRootId);
+        }
+    }
+}
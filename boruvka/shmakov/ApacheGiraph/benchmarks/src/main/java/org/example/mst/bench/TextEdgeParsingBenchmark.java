@@ -0,0 +1,112 @@
+package org.example.mst.bench;
+
+import org.apache.giraph.conf.GiraphConfiguration;
+import org.apache.giraph.conf.ImmutableClassesGiraphConfiguration;
+import org.apache.giraph.io.EdgeReader;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.example.mst.BoruvkaMSTComputation;
+import org.example.mst.MSTVertexValue;
+import org.example.mst.input.LongDoubleTextEdgeInputFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LongDoubleTextEdgeInputFormat} end to end over one split: line reader, tokenizer and
+ * writable reuse, exactly as a Giraph input thread runs it. The edge list is a temp file that
+ * stays in the page cache after the first iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextEdgeParsingBenchmark {
+    @Param({"ROAD", "UNIFORM", "POWER_LAW"})
+    public DegreeDistribution degrees;
+
+    @Param({"20000"})
+    public int vertices;
+
+    private File file;
+    private ImmutableClassesGiraphConfiguration<LongWritable, MSTVertexValue, DoubleWritable> conf;
+    private LongDoubleTextEdgeInputFormat format;
+    private FileSplit split;
+    private TaskAttemptContext context;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = File.createTempFile("bench-" + degrees, ".edgelist");
+        Random rnd = new Random(42);
+        int[] deg = degrees.degrees(vertices, 42);
+        try (BufferedWriter w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.US_ASCII), 1 << 16)) {
+            for (int v = 0; v < vertices; v++) {
+                for (int e = 0; e < deg[v]; e++) {
+                    // DIMACS-style integral weights and SuiteSparse-style decimals, half each
+                    String weight = rnd.nextBoolean()
+                            ? Integer.toString(1 + rnd.nextInt(100_000))
+                            : String.format(Locale.ROOT, "%.6f", rnd.nextDouble() * 1000);
+                    w.write(v + " " + rnd.nextInt(vertices) + " " + weight);
+                    w.newLine();
+                }
+            }
+        }
+
+        GiraphConfiguration giraphConf = new GiraphConfiguration();
+        giraphConf.setComputationClass(BoruvkaMSTComputation.class);
+        giraphConf.setEdgeInputFormatClass(LongDoubleTextEdgeInputFormat.class);
+        conf = new ImmutableClassesGiraphConfiguration<>(giraphConf);
+        format = new LongDoubleTextEdgeInputFormat();
+        format.setConf(conf);
+        split = new FileSplit(new Path(file.toURI()), 0, file.length(), new String[0]);
+        context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public long readSplit(Blackhole bh) throws IOException, InterruptedException {
+        EdgeReader<LongWritable, DoubleWritable> reader = format.createEdgeReader(split, context);
+        reader.setConf(conf);
+        reader.initialize(split, context);
+        long edges = 0;
+        while (reader.nextEdge()) {
+            bh.consume(reader.getCurrentSourceId().get());
+            bh.consume(reader.getCurrentEdge().getValue().get());
+            edges++;
+        }
+        reader.close();
+        return edges;
+    }
+}
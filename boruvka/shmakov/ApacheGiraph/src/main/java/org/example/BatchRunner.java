@@ -0,0 +1,234 @@
+package org.example;
+
+import org.example.mst.input.BinaryEdgeWriter;
+import org.example.mst.input.EdgeFileReader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code --batch}: runs every job of a manifest one after another in this JVM, with the other
+ * command line flags applied to all of them. Manifest lines are {@code input threads [repetitions]};
+ * blank lines and lines starting with {@code #} are skipped.
+ * <p>
+ * The first successful job on an input is reported as cold: it pays for everything done once per
+ * input (text inputs are parsed into a temp {@code .bedges} copy for the Giraph engine, the
+ * compact remapping, vertex orderings and the shared engine's graph are kept, see
+ * {@link DerivedInputs}), and the first job of the batch also for class loading and JIT warm-up.
+ * Later jobs on that input are warm, in the same entry or in a later one with other threads. What
+ * was derived from an input is released after the last entry that reads it. Giraph still loads
+ * its partitions from the input for every job, so besides the wall time every job reports its
+ * compute time, see {@link Main#lastComputeNanos}. Each job starts after a full GC, and the
+ * collections and GC time during the job are reported with it.
+ */
+final class BatchRunner {
+    private BatchRunner() {}
+
+    private static final class Entry {
+        final String input;
+        final int threads;
+        final int repetitions;
+        final List<Run> runs = new ArrayList<>();
+
+        Entry(String input, int threads, int repetitions) {
+            this.input = input;
+            this.threads = threads;
+            this.repetitions = repetitions;
+        }
+    }
+
+    private static final class Run {
+        final boolean cold;
+        final double seconds;
+        final double computeSeconds;
+        final long gcCount;
+        final double gcSeconds;
+
+        Run(boolean cold, double seconds, double computeSeconds, long gcCount, double gcSeconds) {
+            this.cold = cold;
+            this.seconds = seconds;
+            this.computeSeconds = computeSeconds;
+            this.gcCount = gcCount;
+            this.gcSeconds = gcSeconds;
+        }
+    }
+
+    /** Returns false if any job failed; the remaining jobs still run. */
+    static boolean run(Main.Options options, String manifest) throws Exception {
+        List<Entry> entries = readManifest(manifest);
+        int jobs = 0;
+        for (Entry e : entries) jobs += e.repetitions;
+
+        Map<String, Integer> lastEntry = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) lastEntry.put(entries.get(i).input, i);
+
+        Map<String, DerivedInputs> derivedByInput = new HashMap<>();
+        Set<String> warmInputs = new HashSet<>();
+        boolean allOk = true;
+        int job = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            Entry e = entries.get(i);
+            DerivedInputs derived = derivedByInput.computeIfAbsent(e.input, k -> new DerivedInputs());
+            for (int rep = 1; rep <= e.repetitions; rep++) {
+                job++;
+                boolean cold = !warmInputs.contains(e.input);
+                String kind = cold ? "cold" : "warm";
+                System.out.printf("[Batch] job %d/%d: %s, %d threads, repetition %d/%d (%s)%n",
+                        job, jobs, e.input, e.threads, rep, e.repetitions, kind);
+
+                // garbage of the previous job is not charged to this one
+                System.gc();
+                long gcCount0 = gcCount();
+                long gcMillis0 = gcMillis();
+                long t0 = System.nanoTime();
+                boolean ok;
+                try {
+                    ok = Main.runJob(options, prepare(options, e.input, derived), e.threads, derived);
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    ok = false;
+                }
+                double seconds = (System.nanoTime() - t0) / 1e9;
+                double computeSeconds = Main.lastComputeNanos() / 1e9;
+                long gcCount = gcCount() - gcCount0;
+                double gcSeconds = (gcMillis() - gcMillis0) / 1e3;
+
+                System.out.printf("BATCH_RUN job=%d input=%s threads=%d rep=%d kind=%s ok=%b wall_s=%.3f compute_s=%.3f "
+                                + "gc_count=%d gc_s=%.3f heap_used_mb=%d%n",
+                        job, e.input, e.threads, rep, kind, ok, seconds, computeSeconds, gcCount, gcSeconds, heapUsedMb());
+                if (ok) {
+                    e.runs.add(new Run(cold, seconds, computeSeconds, gcCount, gcSeconds));
+                    warmInputs.add(e.input);
+                } else {
+                    allOk = false;
+                    // the next job on this input would pay the cold costs again, so the entry's numbers mean little
+                    if (cold) break;
+                }
+            }
+            if (lastEntry.get(e.input) == i) derivedByInput.remove(e.input).release();
+        }
+
+        for (Entry e : entries) printResult(e);
+        return allOk;
+    }
+
+    private static void printResult(Entry e) {
+        if (e.runs.isEmpty()) {
+            System.out.printf("BATCH_RESULT input=%s threads=%d failed%n", e.input, e.threads);
+            return;
+        }
+        StringBuilder line = new StringBuilder(String.format("BATCH_RESULT input=%s threads=%d", e.input, e.threads));
+        int warm = 0;
+        double sum = 0, min = Double.POSITIVE_INFINITY, computeSum = 0, computeMin = Double.POSITIVE_INFINITY, gcSum = 0;
+        long gcCountSum = 0;
+        for (Run r : e.runs) {
+            if (r.cold) {
+                // only the first entry on an input has one
+                line.append(String.format(" cold_s=%.3f cold_compute_s=%.3f cold_gc_count=%d cold_gc_s=%.3f",
+                        r.seconds, r.computeSeconds, r.gcCount, r.gcSeconds));
+                continue;
+            }
+            warm++;
+            sum += r.seconds;
+            min = Math.min(min, r.seconds);
+            computeSum += r.computeSeconds;
+            computeMin = Math.min(computeMin, r.computeSeconds);
+            gcSum += r.gcSeconds;
+            gcCountSum += r.gcCount;
+        }
+        line.append(" warm_runs=").append(warm);
+        if (warm > 0) {
+            line.append(String.format(" warm_mean_s=%.3f warm_min_s=%.3f warm_mean_compute_s=%.3f warm_min_compute_s=%.3f "
+                            + "warm_gc_count=%.1f warm_gc_s=%.3f",
+                    sum / warm, min, computeSum / warm, computeMin, (double) gcCountSum / warm, gcSum / warm));
+        }
+        System.out.println(line);
+    }
+
+    /**
+     * The Giraph engine reads a text input through its text input format in every job; in a batch
+     * it is parsed once into a {@code .bedges} copy that later jobs map instead. The compact path
+     * and the shared engine keep their own derived data.
+     */
+    private static String prepare(Main.Options o, String input, DerivedInputs derived) throws Exception {
+        if (!"giraph".equals(o.engine) || o.compact || input.endsWith(".bedges")) return input;
+        return derived.get("binary " + input, () -> {
+            long t0 = System.nanoTime();
+            File file = File.createTempFile("boruvka-batch-", ".bedges");
+            file.deleteOnExit();
+            boolean symmetric = EdgeFileReader.isSymmetric(input);
+            long written;
+            try (BinaryEdgeWriter out = new BinaryEdgeWriter(file)) {
+                EdgeFileReader.read(input, (u, v, w) -> {
+                    out.write(u, v, w);
+                    if (symmetric) out.write(v, u, w);
+                });
+                written = out.edges();
+            }
+            System.out.printf("[Batch] %s parsed into a binary copy (%d directed edges) in %.3f s%n",
+                    input, written, (System.nanoTime() - t0) / 1e9);
+            return file.getAbsolutePath();
+        }, path -> new File(path).delete());
+    }
+
+    private static List<Entry> readManifest(String manifest) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(manifest), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNo = 0;
+            while ((line = br.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] toks = line.split("\\s+");
+                if (toks.length < 2 || toks.length > 3) {
+                    throw new IOException(manifest + ":" + lineNo + ": expected 'input threads [repetitions]', got: " + line);
+                }
+                int threads, repetitions;
+                try {
+                    threads = Integer.parseInt(toks[1]);
+                    repetitions = toks.length == 3 ? Integer.parseInt(toks[2]) : 1;
+                } catch (NumberFormatException e) {
+                    throw new IOException(manifest + ":" + lineNo + ": " + e.getMessage(), e);
+                }
+                if (threads < 1 || repetitions < 1) {
+                    throw new IOException(manifest + ":" + lineNo + ": threads and repetitions must be positive");
+                }
+                if (!new File(toks[0]).isFile()) {
+                    throw new IOException(manifest + ":" + lineNo + ": no such input " + toks[0]);
+                }
+                entries.add(new Entry(toks[0], threads, repetitions));
+            }
+        }
+        if (entries.isEmpty()) throw new IOException(manifest + " lists no jobs");
+        return entries;
+    }
+
+    private static long gcCount() {
+        long n = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) n += Math.max(0, gc.getCollectionCount());
+        return n;
+    }
+
+    private static long gcMillis() {
+        long ms = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) ms += Math.max(0, gc.getCollectionTime());
+        return ms;
+    }
+
+    private static long heapUsedMb() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() >> 20;
+    }
+}
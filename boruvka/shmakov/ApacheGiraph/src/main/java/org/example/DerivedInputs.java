@@ -0,0 +1,49 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data a job computes from its input before Giraph starts (a loaded graph, a renumbered copy, a
+ * vertex order), kept so that later jobs of a {@link BatchRunner} batch on the same input skip
+ * the work. Keys name both the kind of data and the input. Single runs use a fresh instance;
+ * a batch keeps one per input and calls {@link #release} after the last job that reads it.
+ */
+final class DerivedInputs {
+    interface Source<T> {
+        T compute() throws Exception;
+    }
+
+    /** Frees what a value holds outside the heap, such as temp files and the caches loading them. */
+    interface Release<T> {
+        void release(T value);
+    }
+
+    private final Map<String, Object> values = new HashMap<>();
+    private final List<Runnable> releases = new ArrayList<>();
+
+    <T> T get(String key, Source<T> source) throws Exception {
+        return get(key, source, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(String key, Source<T> source, Release<? super T> release) throws Exception {
+        Object value = values.get(key);
+        if (value == null) {
+            T computed = source.compute();
+            values.put(key, computed);
+            if (release != null) releases.add(() -> release.release(computed));
+            return computed;
+        }
+        return (T) value;
+    }
+
+    /** Drops every value; a later {@link #get} computes it again. */
+    void release() {
+        for (Runnable r : releases) r.run();
+        releases.clear();
+        values.clear();
+    }
+}
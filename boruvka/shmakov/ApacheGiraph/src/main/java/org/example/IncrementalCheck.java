@@ -0,0 +1,131 @@
+package org.example;
+
+import org.example.mst.input.EdgeFileReader;
+import org.example.mst.tools.UpdateBatchGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * End-to-end check of {@code --previous-mst}: runs the Giraph job on the input, then a chain of
+ * random batches from {@link UpdateBatchGenerator} (deletions and weight changes of forest and
+ * other edges, insertions between existing and new vertices). Every batch is applied
+ * incrementally to the previous incremental output, and its {@code MST_WEIGHT} and edge set are
+ * compared with a full run on the updated graph the incremental run wrote with
+ * {@code --updated-graph}. Exits with 1 on the first mismatch.
+ */
+final class IncrementalCheck {
+    private IncrementalCheck() {}
+
+    public static void main(String[] args) throws Exception {
+        String input = null, work = null;
+        int batches = 10, count = 100, threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        long seed = 1;
+        for (int i = 0; i < args.length; i++) {
+            if ("--input".equals(args[i]) && i + 1 < args.length) input = args[++i];
+            else if ("--work".equals(args[i]) && i + 1 < args.length) work = args[++i];
+            else if ("--batches".equals(args[i]) && i + 1 < args.length) batches = Integer.parseInt(args[++i]);
+            else if ("--count".equals(args[i]) && i + 1 < args.length) count = Integer.parseInt(args[++i]);
+            else if ("--threads".equals(args[i]) && i + 1 < args.length) threads = Integer.parseInt(args[++i]);
+            else if ("--seed".equals(args[i]) && i + 1 < args.length) seed = Long.parseLong(args[++i]);
+        }
+        if (input == null) {
+            System.err.println("Usage: java -cp ... org.example.IncrementalCheck --input graph.edgelist|graph.mtx|graph.gr|graph.bedges"
+                    + " [--batches N] [--count updates-per-batch] [--seed S] [--threads N] [--work dir]");
+            System.exit(2);
+        }
+        File dir = work != null ? new File(work) : Files.createTempDirectory("boruvka-incremental-check-").toFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+
+        Random rnd = new Random(seed);
+        String previous = new File(dir, "mst-0").getPath();
+        run(full(input, previous), threads);
+        String current = input;
+        for (int b = 1; b <= batches; b++) {
+            String batch = new File(dir, "batch-" + b + ".txt").getPath();
+            UpdateBatchGenerator.writeBatch(current, previous, count, rnd, batch);
+
+            Main.Options incremental = full(current, new File(dir, "mst-" + b).getPath());
+            incremental.previousMst = previous;
+            incremental.updates = batch;
+            incremental.updatedGraph = new File(dir, "graph-" + b + ".bedges").getPath();
+            double weight = run(incremental, threads);
+
+            Main.Options recompute = full(incremental.updatedGraph, new File(dir, "full-" + b).getPath());
+            double expected = run(recompute, threads);
+
+            TreeSet<String> edges = readForest(incremental.output);
+            TreeSet<String> expectedEdges = readForest(recompute.output);
+            // both weights went through %.6f, and the incremental one is summed in another order
+            boolean ok = Math.abs(weight - expected) <= 2e-6 + 1e-9 * Math.abs(expected) && edges.equals(expectedEdges);
+            System.out.printf("INCREMENTAL_CHECK batch=%d ok=%b mst_weight=%.6f full_mst_weight=%.6f edges=%d full_edges=%d%n",
+                    b, ok, weight, expected, edges.size(), expectedEdges.size());
+            if (!ok) {
+                System.out.println("INCREMENTAL_CHECK failed, inputs kept in " + dir);
+                System.exit(1);
+            }
+            previous = incremental.output;
+            current = incremental.updatedGraph;
+        }
+    }
+
+    private static Main.Options full(String input, String output) {
+        Main.Options o = new Main.Options();
+        o.input = input;
+        o.output = output;
+        return o;
+    }
+
+    /** Runs one job and returns the {@code MST_WEIGHT} it printed, as printed. */
+    private static double run(Main.Options o, int threads) throws Exception {
+        String conflict = o.conflict();
+        if (conflict != null) throw new IllegalArgumentException(conflict);
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                stdout.write(b);
+                copy.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                stdout.write(b, off, len);
+                copy.write(b, off, len);
+            }
+        }, true));
+        boolean ok;
+        try {
+            ok = Main.runJob(o, o.input, threads, new DerivedInputs());
+        } finally {
+            System.out.flush();
+            System.setOut(stdout);
+        }
+        String log = new String(copy.toByteArray(), StandardCharsets.UTF_8);
+        int at = log.lastIndexOf("MST_WEIGHT=");
+        if (!ok || at < 0) throw new IOException("Job on " + o.input + " failed or printed no MST_WEIGHT");
+        int end = at + "MST_WEIGHT=".length();
+        while (end < log.length() && !Character.isWhitespace(log.charAt(end))) end++;
+        return Double.parseDouble(log.substring(at + "MST_WEIGHT=".length(), end));
+    }
+
+    /** The edges of every part file in {@code dir}, as {@code "a b w"} lines. */
+    private static TreeSet<String> readForest(String dir) throws IOException {
+        File[] parts = new File(dir).listFiles((d, name) -> name.startsWith("part-")
+                && (name.endsWith(".txt") || name.endsWith(".bedges")));
+        if (parts == null) throw new IOException("No such directory " + dir);
+        TreeSet<String> edges = new TreeSet<>();
+        for (File part : parts) {
+            EdgeFileReader.read(part.getPath(), (u, v, w) -> edges.add(Math.min(u, v) + " " + Math.max(u, v) + " " + w));
+        }
+        return edges;
+    }
+}
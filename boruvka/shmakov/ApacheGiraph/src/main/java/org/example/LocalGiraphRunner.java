@@ -0,0 +1,64 @@
+package org.example;
+
+import org.apache.giraph.conf.GiraphConfiguration;
+import org.apache.giraph.conf.GiraphConstants;
+import org.apache.giraph.io.formats.FileOutputFormatUtil;
+import org.apache.giraph.io.formats.GiraphFileInputFormat;
+import org.apache.giraph.job.GiraphJob;
+import org.apache.giraph.utils.FileUtils;
+import org.apache.giraph.zk.InProcessZooKeeperRunner;
+import org.apache.giraph.zk.ZookeeperConfig;
+import org.apache.hadoop.fs.Path;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+
+/**
+ * Same in-process setup as {@link org.apache.giraph.utils.InternalVertexRunner}, but the edge
+ * input format reads the given path directly instead of a temp copy of an in-memory String[].
+ */
+public final class LocalGiraphRunner {
+    private LocalGiraphRunner() {}
+
+    public static boolean run(GiraphConfiguration conf, String edgeInput, String outputDir) throws Exception {
+        File tmpDir = FileUtils.createTestDir(conf.getComputationName());
+        try {
+            File zkDir = FileUtils.createTempDir(tmpDir, "_bspZooKeeper");
+            File zkMgrDir = FileUtils.createTempDir(tmpDir, "_defaultZkManagerDir");
+            File mapredDir = FileUtils.createTempDir(tmpDir, "_mapred");
+            File checkpointsDir = FileUtils.createTempDir(tmpDir, "_checkpoints");
+            String output = outputDir != null ? outputDir : FileUtils.createTempDir(tmpDir, "output").toString();
+
+            conf.setWorkerConfiguration(1, 1, 100.0f);
+            GiraphConstants.SPLIT_MASTER_WORKER.set(conf, false);
+            GiraphConstants.LOCAL_TEST_MODE.set(conf, true);
+            conf.setIfUnset("mapred.job.tracker", "local");
+            conf.setIfUnset("mapred.local.dir", mapredDir.toString());
+            conf.set("giraph.zkDir", zkDir.toString());
+            GiraphConstants.ZOOKEEPER_MANAGER_DIRECTORY.set(conf, zkMgrDir.toString());
+            GiraphConstants.CHECKPOINT_DIRECTORY.set(conf, checkpointsDir.toString());
+
+            GiraphJob job = new GiraphJob(conf, conf.getComputationName());
+            GiraphFileInputFormat.setEdgeInputPath(job.getInternalJob().getConfiguration(),
+                    new Path(new File(edgeInput).getAbsolutePath()));
+            FileOutputFormatUtil.setOutputPath(job.getInternalJob(), new Path(output));
+
+            ZookeeperConfig zkConfig = new ZookeeperConfig();
+            zkConfig.setMaxSessionTimeout(100000);
+            zkConfig.setMinSessionTimeout(10000);
+            zkConfig.setClientPortAddress(new InetSocketAddress("localhost", 0));
+            zkConfig.setDataDir(zkDir.getAbsolutePath());
+
+            InProcessZooKeeperRunner.ZooKeeperServerRunner zookeeper = new InProcessZooKeeperRunner.ZooKeeperServerRunner();
+            try {
+                int port = zookeeper.start(zkConfig);
+                GiraphConstants.ZOOKEEPER_LIST.set(job.getConfiguration(), "localhost:" + port);
+                return job.run(true);
+            } finally {
+                zookeeper.stop();
+            }
+        } finally {
+            FileUtils.delete(tmpDir);
+        }
+    }
+}
@@ -1,46 +1,228 @@
 package org.example;
 
 import org.apache.giraph.conf.GiraphConfiguration;
-import org.apache.giraph.utils.InternalVertexRunner;
+import org.apache.giraph.io.EdgeInputFormat;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
 import org.example.mst.BoruvkaMSTComputation;
+import org.example.mst.BoruvkaMasterCompute;
+import org.example.mst.CompactBoruvkaMSTComputation;
 import org.example.mst.LogMstWeightMasterCompute;
+import org.example.mst.combiner.CompactMinEdgeMessageCombiner;
+import org.example.mst.compact.IdRemapping;
+import org.example.mst.compact.IdTable;
+import org.example.mst.edge.WeightSortedIntFloatEdges;
+import org.example.mst.edge.WeightSortedLongDoubleEdges;
+import org.example.mst.incremental.IncrementalRepair;
+import org.example.mst.incremental.SeedForest;
+import org.example.mst.incremental.UpdateBatch;
+import org.example.mst.input.BinaryEdgeInputFormat;
+import org.example.mst.input.CompactBinaryEdgeInputFormat;
+import org.example.mst.input.DimacsGrEdgeInputFormat;
+import org.example.mst.input.LocalMsfEdgeInputFormat;
 import org.example.mst.input.LongDoubleTextEdgeInputFormat;
+import org.example.mst.input.MatrixMarketEdgeInputFormat;
+import org.example.mst.output.BinaryMstEdgeOutputFormat;
+import org.example.mst.output.CompactMstEdgeOutputFormat;
+import org.example.mst.output.MstEdgeOutputFormat;
+import org.example.mst.output.TextMstEdgeOutputFormat;
+import org.example.mst.partition.LongRangePartitionerFactory;
+import org.example.mst.partition.VertexIdRange;
+import org.example.mst.partition.VertexOrdering;
+import org.example.mst.shared.CsrGraph;
+import org.example.mst.shared.SharedMemoryBoruvka;
 import org.apache.hadoop.mapreduce.counters.Limits;
 
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.List;
+import java.io.File;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
 
 public class Main {
-    public static void main(String[] args) throws Exception {
-        String input = null;
-        String output = null;
+    private static final String USAGE = "Usage: java -jar test_giraph_2-...-shaded.jar --input graph.edgelist|graph.mtx|graph.gr|graph.bedges"
+            + " [--output /tmp/out [--binary-output]] [--threads N] [--contract] [--metrics phases.json|phases.csv]"
+            + " [--engine giraph|shared] [--local-msf] [--partitioner hash|range] [--order bfs|degree]"
+            + " [--previous-mst mst-dir --updates batch.txt [--updated-graph graph.bedges]] [--compact]\n"
+            + "       java -jar test_giraph_2-...-shaded.jar --batch manifest.txt [options without --input/--threads/--output/--metrics/--updated-graph]";
+
+    /** Command line flags; in batch mode {@link #input} and {@link #threads} come from the manifest instead. */
+    static final class Options {
+        String input;
+        String output;
         int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        boolean contract;
+        boolean binaryOutput;
+        String metrics;
+        String engine = "giraph";
+        boolean localMsf;
+        String partitioner = "hash";
+        String order;
+        String previousMst;
+        String updates;
+        String updatedGraph;
+        boolean compact;
+        String batch;
+
+        static Options parse(String[] args) {
+            Options o = new Options();
+            for (int i = 0; i < args.length; i++) {
+                if ("--input".equals(args[i]) && i + 1 < args.length) o.input = args[++i];
+                else if ("--output".equals(args[i]) && i + 1 < args.length) o.output = args[++i];
+                else if ("--threads".equals(args[i]) && i + 1 < args.length) o.threads = Integer.parseInt(args[++i]);
+                else if ("--contract".equals(args[i])) o.contract = true;
+                else if ("--binary-output".equals(args[i])) o.binaryOutput = true;
+                else if ("--metrics".equals(args[i]) && i + 1 < args.length) o.metrics = args[++i];
+                else if ("--engine".equals(args[i]) && i + 1 < args.length) o.engine = args[++i];
+                else if ("--local-msf".equals(args[i])) o.localMsf = true;
+                else if ("--partitioner".equals(args[i]) && i + 1 < args.length) o.partitioner = args[++i];
+                else if ("--order".equals(args[i]) && i + 1 < args.length) o.order = args[++i];
+                else if ("--previous-mst".equals(args[i]) && i + 1 < args.length) o.previousMst = args[++i];
+                else if ("--updates".equals(args[i]) && i + 1 < args.length) o.updates = args[++i];
+                else if ("--updated-graph".equals(args[i]) && i + 1 < args.length) o.updatedGraph = args[++i];
+                else if ("--compact".equals(args[i])) o.compact = true;
+                else if ("--batch".equals(args[i]) && i + 1 < args.length) o.batch = args[++i];
+            }
+            return o;
+        }
+
+        /** The first conflict between flags, or null if they go together. */
+        String conflict() {
+            if ((previousMst == null) != (updates == null)) {
+                return "--previous-mst and --updates go together";
+            }
+            if (updatedGraph != null && (previousMst == null || !updatedGraph.endsWith(".bedges"))) {
+                return "--updated-graph takes a .bedges file and needs --previous-mst";
+            }
+            if (previousMst != null && contract) {
+                // contraction expects every vertex to start as a root
+                return "--previous-mst is not supported together with --contract";
+            }
+            if (compact && (previousMst != null || localMsf || order != null || !"hash".equals(partitioner))) {
+                // seeds, the local MSF pre-pass and the range partitioner all work on original long ids
+                return "--compact is not supported together with --previous-mst, --local-msf, --partitioner or --order";
+            }
+            if ("shared".equals(engine)) {
+                if (output != null || contract || metrics != null || localMsf || order != null || !"hash".equals(partitioner)
+                        || previousMst != null || compact) {
+                    return "--output, --contract, --metrics, --local-msf, --partitioner, --order, --previous-mst "
+                            + "and --compact only apply to the Giraph engine";
+                }
+            } else if (!"giraph".equals(engine)) {
+                return "Unknown engine: " + engine;
+            }
+            if (!"hash".equals(partitioner) && !"range".equals(partitioner)) {
+                return "Unknown partitioner: " + partitioner;
+            }
+            return null;
+        }
+    }
 
-        for (int i = 0; i < args.length; i++) {
-            if ("--input".equals(args[i]) && i + 1 < args.length) input = args[++i];
-            else if ("--output".equals(args[i]) && i + 1 < args.length) output = args[++i];
-            else if ("--threads".equals(args[i]) && i + 1 < args.length) threads = Integer.parseInt(args[++i]);
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        if (options.batch != null) {
+            if (options.input != null || options.output != null || options.metrics != null || options.updatedGraph != null) {
+                // every job would write to the same place
+                System.err.println("--batch takes the inputs from the manifest and does not support --output, --metrics "
+                        + "or --updated-graph");
+                System.exit(2);
+            }
+            exitOnConflict(options);
+            System.exit(BatchRunner.run(options, options.batch) ? 0 : 1);
         }
-        if (input == null) {
-            System.err.println("Usage: java -jar test_giraph_2-...-shaded.jar --input graph.edgelist [--output /tmp/out] [--threads N]");
+        if (options.input == null) {
+            System.err.println(USAGE);
             System.exit(2);
         }
+        exitOnConflict(options);
 
-        List<String> edgeLines = Files.readAllLines(Paths.get(input));
-        String[] edgeList = edgeLines.toArray(new String[0]);
+        if (!runJob(options, options.input, options.threads, new DerivedInputs())) {
+            System.err.println("[Main] Giraph job failed");
+            System.exit(1);
+        }
+    }
+
+    /** Compute time of the last {@link #runJob}, see {@link #lastComputeNanos}. */
+    private static long computeNanos;
+
+    /**
+     * Summed superstep wall time of the last Giraph job, or the Boruvka time of the last shared
+     * run; neither includes loading the input or writing the output. 0 if no job ran.
+     */
+    static long lastComputeNanos() {
+        return computeNanos;
+    }
+
+    private static void exitOnConflict(Options options) {
+        String conflict = options.conflict();
+        if (conflict == null) return;
+        System.err.println(conflict);
+        System.exit(2);
+    }
+
+    /**
+     * One run on {@code input} with {@code threads} threads. Files computed from the input (compact
+     * remapping, vertex order, the shared engine's graph) are taken from {@code derived} if an
+     * earlier job of the same JVM made them. Returns false if the Giraph job failed.
+     */
+    static boolean runJob(Options o, String input, int threads, DerivedInputs derived) throws Exception {
+        computeNanos = 0;
+        if ("shared".equals(o.engine)) {
+            runShared(input, threads, derived);
+            return true;
+        }
 
         GiraphConfiguration conf = new GiraphConfiguration();
         conf.setComputationClass(BoruvkaMSTComputation.class);
         conf.setMasterComputeClass(LogMstWeightMasterCompute.class);
-        conf.setEdgeInputFormatClass(LongDoubleTextEdgeInputFormat.class);
+
+        String jobInput = input;
+        IncrementalRepair repair = null;
+        if (o.previousMst != null) {
+            long t0 = System.nanoTime();
+            repair = IncrementalRepair.plan(input, o.previousMst, UpdateBatch.read(o.updates), null, o.updatedGraph);
+            System.out.printf("[Main] Incremental update: %s (%.3f s)%n", repair.summary(), (System.nanoTime() - t0) / 1e9);
+            if (repair.jobEdges() == 0) {
+                // the batch only touched edges inside surviving pieces: the kept forest is the answer
+                repair.close();
+                System.out.printf("MST_WEIGHT=%.6f%n", repair.baseWeight());
+                if (o.output != null) {
+                    // no job runs, so nothing else replaces the part files of an earlier run
+                    MstEdgeOutputFormat.removePreviousResult(new Path(o.output), new Configuration());
+                    repair.writeKeptEdges(o.output, o.binaryOutput);
+                }
+                return true;
+            }
+            jobInput = repair.jobInput();
+            SeedForest.SEED_FILE.set(conf, repair.seedFile());
+        }
+
+        if (o.compact) {
+            jobInput = configureCompact(conf, jobInput, o.output != null, o.binaryOutput, derived);
+        } else {
+            if (o.localMsf) {
+                conf.setEdgeInputFormatClass(LocalMsfEdgeInputFormat.class);
+                LocalMsfEdgeInputFormat.DELEGATE.set(conf, edgeInputFormatFor(jobInput));
+                LocalMsfEdgeInputFormat.resetStats();
+            } else {
+                conf.setEdgeInputFormatClass(edgeInputFormatFor(jobInput));
+            }
+            conf.setOutEdgesClass(WeightSortedLongDoubleEdges.class);
+            if (o.output != null) {
+                conf.setVertexOutputFormatClass(o.binaryOutput ? BinaryMstEdgeOutputFormat.class : TextMstEdgeOutputFormat.class);
+            }
+        }
 
         conf.setWorkerConfiguration(1, 1, 100.0f);
         conf.setBoolean("giraph.isLocal", true);
         conf.setInt("giraph.numComputeThreads", threads);
 
         conf.setInt("giraph.numInputSplitsThreads", threads);
-        conf.setInt("giraph.numOutputThreads", 1);
+        // the text path gets real file splits too: a few per input thread instead of one per 32MB block
+        long splitSize = Math.max(1L << 20, new File(jobInput).length() / (threads * 4L));
+        conf.setLong("mapreduce.input.fileinputformat.split.maxsize", splitSize);
+        // every output thread writes its own part file
+        conf.setInt("giraph.numOutputThreads", threads);
         conf.setBoolean("giraph.metrics.enable", false);
         conf.setBoolean("giraph.splitMasterWorker", false);
 
@@ -50,30 +232,140 @@ public class Main {
         int partitions = threads * 10;
         if (partitions < 50) partitions = 50;
         conf.setInt("giraph.userPartitionCount", partitions);
+        if (o.order != null || "range".equals(o.partitioner)) {
+            configureRangePartitioning(conf, jobInput, o.order, threads, derived);
+        }
 
         conf.setBoolean("giraph.useUnsafeSerialization", true);
+        BoruvkaMSTComputation.CONTRACT.set(conf, o.contract);
+        if (o.metrics != null) BoruvkaMSTComputation.METRICS_FILE.set(conf, new File(o.metrics).getAbsolutePath());
 
         System.out.println("[Main] In-process run with " + threads + " threads, " + partitions + " partitions");
         long t0 = System.nanoTime();
 
-        Iterable<String> result = InternalVertexRunner.run(conf, null, edgeList);
+        boolean ok;
+        BoruvkaMasterCompute.resetStats();
+        try {
+            ok = LocalGiraphRunner.run(conf, jobInput, o.output);
+            computeNanos = BoruvkaMasterCompute.superstepNanos();
+        } finally {
+            // every incremental plan writes a new job input and seed file; don't let a batch pile them up
+            if (repair != null) repair.close();
+        }
+        if (ok && repair != null && o.output != null) repair.writeKeptEdges(o.output, o.binaryOutput);
 
         long t1 = System.nanoTime();
         double secs = (t1 - t0) / 1e9;
-        System.out.printf("[Main] In-process job finished. Total wall time: %.3f s%n", secs);
-
-        if (output != null && result != null) {
-            java.nio.file.Path outDir = Paths.get(output);
-            java.nio.file.Files.createDirectories(outDir);
-            java.nio.file.Path outFile = outDir.resolve("part-00000");
-            java.nio.file.Files.write(outFile, toList(result));
-            System.out.println("[Main] Wrote output to " + outFile.toAbsolutePath());
+        System.out.printf("[Main] In-process job finished. Supersteps: %.3f s. Total wall time: %.3f s%n",
+                computeNanos / 1e9, secs);
+        if (o.localMsf) {
+            long read = LocalMsfEdgeInputFormat.edgesRead();
+            long kept = LocalMsfEdgeInputFormat.edgesKept();
+            System.out.printf("[Main] Local MSF pre-pass kept %d of %d edges (%.1f%% removed)%n",
+                    kept, read, read == 0 ? 0.0 : 100.0 * (read - kept) / read);
+        }
+        return ok;
+    }
+
+    /**
+     * Range partitioning over the id range, or over a BFS / degree ordering computed here from an
+     * in-memory copy of the graph. The edge cut is logged by the master after superstep 0.
+     */
+    private static void configureRangePartitioning(GiraphConfiguration conf, String input, String order, int threads,
+                                                   DerivedInputs derived) throws Exception {
+        conf.setGraphPartitionerFactoryClass(LongRangePartitionerFactory.class);
+        long t0 = System.nanoTime();
+        if (order == null) {
+            VertexIdRange range = derived.get("range " + input, () -> VertexIdRange.of(input));
+            LongRangePartitionerFactory.MIN_ID.set(conf, range.min);
+            LongRangePartitionerFactory.MAX_ID.set(conf, range.max);
+            System.out.printf("[Main] Range partitioning over ids %d..%d (%.3f s)%n", range.min, range.max, (System.nanoTime() - t0) / 1e9);
+            return;
+        }
+
+        VertexOrdering.Mode mode = VertexOrdering.Mode.valueOf(order.toUpperCase(Locale.ROOT));
+        String file = derived.get("order " + mode + " " + input, () -> {
+            File f = File.createTempFile("boruvka-order-", ".bin");
+            f.deleteOnExit();
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                VertexOrdering.write(CsrGraph.load(input, pool), mode, f.getAbsolutePath());
+            } finally {
+                pool.shutdown();
+            }
+            VertexOrdering.evict(f.getAbsolutePath());
+            return f.getAbsolutePath();
+        }, f -> {
+            VertexOrdering.evict(f);
+            new File(f).delete();
+        });
+        LongRangePartitionerFactory.ORDER_FILE.set(conf, file);
+        System.out.printf("[Main] %s ordering computed in %.3f s%n", mode, (System.nanoTime() - t0) / 1e9);
+    }
+
+    /**
+     * Renumbers the input to dense int ids and switches the job to the int / float classes. The
+     * remapped graph and the id table go to temp files; returns the path the job reads.
+     */
+    private static String configureCompact(GiraphConfiguration conf, String input, boolean output, boolean binaryOutput,
+                                           DerivedInputs derived) throws Exception {
+        long t0 = System.nanoTime();
+        File[] files = derived.get("compact " + input, () -> {
+            File edges = File.createTempFile("boruvka-compact-", ".cedges");
+            File ids = File.createTempFile("boruvka-ids-", ".bin");
+            edges.deleteOnExit();
+            ids.deleteOnExit();
+            IdRemapping remap = IdRemapping.write(input, edges.getAbsolutePath(), ids.getAbsolutePath());
+            IdTable.evict(ids.getAbsolutePath());
+            System.out.printf("[Main] Compact ids: %d vertices, %d directed edges remapped in %.3f s%n",
+                    remap.vertices, remap.edges, (System.nanoTime() - t0) / 1e9);
+            return new File[] {edges, ids};
+        }, f -> {
+            IdTable.evict(f[1].getAbsolutePath());
+            f[0].delete();
+            f[1].delete();
+        });
+
+        conf.setComputationClass(CompactBoruvkaMSTComputation.class);
+        conf.setEdgeInputFormatClass(CompactBinaryEdgeInputFormat.class);
+        conf.setOutEdgesClass(WeightSortedIntFloatEdges.class);
+        if (output) {
+            conf.setVertexOutputFormatClass(CompactMstEdgeOutputFormat.class);
+            CompactMstEdgeOutputFormat.BINARY.set(conf, binaryOutput);
+        }
+        BoruvkaMSTComputation.CANDIDATE_COMBINER.set(conf, CompactMinEdgeMessageCombiner.class);
+        IdTable.ID_TABLE.set(conf, files[1].getAbsolutePath());
+        return files[0].getAbsolutePath();
+    }
+
+    /** Same input and the same MST_WEIGHT line as the Giraph job, computed in this JVM. */
+    private static void runShared(String input, int threads, DerivedInputs derived) throws Exception {
+        System.out.println("[Main] Shared-memory run with " + threads + " threads");
+        long t0 = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            // the pool only parallelizes the build, the graph itself can serve any thread count
+            CsrGraph graph = derived.get("csr " + input, () -> CsrGraph.load(input, pool));
+            long t1 = System.nanoTime();
+            System.out.printf("[Main] Loaded %d vertices, %d directed edges in %.3f s%n",
+                    graph.vertexCount(), graph.edgeCount(), (t1 - t0) / 1e9);
+
+            SharedMemoryBoruvka boruvka = new SharedMemoryBoruvka(graph, pool);
+            double w = boruvka.run();
+            long t2 = System.nanoTime();
+            computeNanos = t2 - t1;
+            System.out.printf("MST_WEIGHT=%.6f%n", w);
+            System.out.printf("BORUVKA_ROUNDS=%d%n", boruvka.getRounds());
+            System.out.printf("[Main] Boruvka: %.3f s. Total wall time: %.3f s%n", (t2 - t1) / 1e9, (t2 - t0) / 1e9);
+        } finally {
+            pool.shutdown();
         }
     }
 
-    private static java.util.List<String> toList(Iterable<String> it) {
-        java.util.ArrayList<String> list = new java.util.ArrayList<>();
-        for (String s : it) list.add(s);
-        return list;
+    private static Class<? extends EdgeInputFormat<LongWritable, DoubleWritable>> edgeInputFormatFor(String input) {
+        if (input.endsWith(".bedges")) return BinaryEdgeInputFormat.class;
+        if (input.endsWith(".mtx")) return MatrixMarketEdgeInputFormat.class;
+        if (input.endsWith(".gr")) return DimacsGrEdgeInputFormat.class;
+        return LongDoubleTextEdgeInputFormat.class;
     }
 }
@@ -0,0 +1,509 @@
+package org.example.mst;
+
+import org.apache.giraph.conf.GiraphConstants;
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.edge.OutEdges;
+import org.apache.giraph.graph.BasicComputation;
+import org.apache.giraph.graph.Vertex;
+import org.apache.giraph.partition.GraphPartitionerFactory;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableComparable;
+import org.example.mst.edge.WeightSortedEdges;
+import org.example.mst.incremental.SeedForest;
+import org.example.mst.messages.BoruvkaMessage;
+import org.example.mst.messages.MSTMessage;
+import org.example.mst.metrics.ComponentForest;
+import org.example.mst.util.LongLongScratchMap;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.example.mst.BoruvkaMSTComputation.*;
+
+/**
+ * The Boruvka phases, whatever the width of ids and weights: phase dispatch, halting and
+ * component totals, contraction, cut counting and the metric counters. Ids are handled as long
+ * and weights as double, which keeps the id order and every float weight exact;
+ * {@link BoruvkaMSTComputation} (long ids, double weights) and
+ * {@link CompactBoruvkaMSTComputation} (dense int ids, float weights) only convert at the
+ * Writable boundary. Phases, aggregators and configuration are declared on
+ * {@link BoruvkaMSTComputation}.
+ */
+public abstract class BoruvkaComputation<I extends WritableComparable, V extends BoruvkaVertexValue,
+        E extends Writable, M extends BoruvkaMessage> extends BasicComputation<I, V, E, M> {
+
+    /** Per-thread scratch state: Giraph runs one Computation instance per compute thread. */
+    private LongLongScratchMap nbrRoot;
+    /** Contraction: foreign root -> slot of its lightest edge in the three arrays below. */
+    private LongLongScratchMap lightest;
+    private double[] lightW = new double[16];
+    private long[] lightA = new long[16];
+    private long[] lightB = new long[16];
+    private int lightCount;
+    private I targetId;
+    private int phase;
+    private boolean contract;
+    /** Starting components of an incremental run, null when every vertex starts alone. */
+    private SeedForest seeds;
+
+    /** Per-thread metric counters, handed to the aggregators once per superstep. */
+    private boolean metrics;
+    private long activeVertices;
+    private long messagesSent;
+    private long bytesSent;
+
+    /** INIT only: edge-cut statistic of the partitioning the job runs with. */
+    private GraphPartitionerFactory<I, V, E> partitioner;
+    private int partitionCount;
+    private long edges;
+    private long cutEdges;
+
+    protected abstract long id(I id);
+
+    protected abstract void setId(I id, long value);
+
+    protected abstract double weight(E weight);
+
+    protected abstract Edge<I, E> newEdge(long target, double weight);
+
+    protected abstract M announce(long srcVertexId, long srcRootId);
+
+    protected abstract M candidate(long srcRootId, long targetRootId, double w, long a, long b);
+
+    protected abstract M parentQuery(long childVertexId);
+
+    protected abstract M parentReply(long childVertexId, long parentsParentId);
+
+    protected abstract M contractEdge(long targetRootId, double w, long a, long b);
+
+    protected abstract M componentStats(long vertices, double forestWeight);
+
+    @Override
+    public void compute(Vertex<I, V, E> vertex, Iterable<M> messages) throws IOException {
+        activeVertices++;
+        if (phase == PHASE_INIT) {
+            initComponent(vertex);
+            countCutEdges(vertex);
+
+        } else if (phase == PHASE_ANNOUNCE) {
+            absorbComponents(vertex, messages);
+            M announce = announce(id(vertex.getId()), vertex.getValue().getParent());
+            // announces from different sources can't be combined; the sorted edge lists have
+            // no parallel edges after trim(), and with other edges a second copy is harmless
+            if (vertex.getEdges() instanceof WeightSortedEdges) {
+                // edges behind the cursor are internal on both ends; the neighbour
+                // treats a missing announce as "same component"
+                WeightSortedEdges edges = (WeightSortedEdges) vertex.getEdges();
+                for (int i = edges.getCursor(); i < edges.size(); i++) {
+                    sendTo(edges.targetAt(i), announce);
+                }
+            } else {
+                for (Edge<I, E> e : vertex.getEdges()) sendMessage(e.getTargetVertexId(), announce);
+            }
+
+        } else if (phase == PHASE_CANDIDATE) {
+            long myRoot = vertex.getValue().getParent();
+            readAnnounces(vertex, messages);
+
+            long myId = id(vertex.getId());
+
+            double bestW = Double.POSITIVE_INFINITY;
+            long bestOtherRoot = -1;
+            long tieA = 0, tieB = 0;
+
+            if (vertex.getEdges() instanceof WeightSortedEdges) {
+                // the first edge past the cursor that leaves the component is the lightest one;
+                // everything skipped on the way is internal for good
+                WeightSortedEdges edges = (WeightSortedEdges) vertex.getEdges();
+                int i = advanceToForeignEdge(edges, nbrRoot, myRoot);
+                if (i < edges.size()) {
+                    long nbr = edges.targetAt(i);
+                    bestW = edges.weightAt(i);
+                    bestOtherRoot = nbrRoot.get(nbr, myRoot);
+                    tieA = Math.min(myId, nbr);
+                    tieB = Math.max(myId, nbr);
+                }
+            } else for (Edge<I, E> e : vertex.getEdges()) {
+                long nbr = id(e.getTargetVertexId());
+                long r = nbrRoot.get(nbr, myRoot);
+                if (r == myRoot) continue;
+
+                double w = weight(e.getValue());
+                long a = Math.min(myId, nbr);
+                long b = Math.max(myId, nbr);
+
+                if (MSTMessage.lighter(w, a, b, bestW, tieA, tieB)) {
+                    bestW = w;
+                    bestOtherRoot = r;
+                    tieA = a; tieB = b;
+                }
+            }
+
+            if (bestOtherRoot != -1) {
+                sendTo(myRoot, candidate(myRoot, bestOtherRoot, bestW, tieA, tieB));
+            } else if (myRoot != myId) {
+                // every edge is internal for good, so nobody needs an announce from this vertex;
+                // the root stays up to learn whether the whole component is finished
+                vertex.voteToHalt();
+            }
+
+        } else if (phase == PHASE_HOOK && contract) {
+            // every vertex left is a root whose edges lead to other roots
+            mergeContractedEdges(vertex, messages);
+            if (!hookOnLightestEdge(vertex)) {
+                finishComponent(vertex);
+            }
+            aggregate(AGG_EDGES, new LongWritable(vertex.getNumEdges()));
+            sendParentQuery(vertex);
+
+        } else if (phase == PHASE_HOOK) {
+            long myId = id(vertex.getId());
+            V value = vertex.getValue();
+
+            if (value.getParent() == myId) {
+                double bestW = Double.POSITIVE_INFINITY;
+                long bestOtherRoot = -1;
+                long bestA = 0, bestB = 0;
+
+                for (M m : messages) {
+                    if (m.getType() != MSTMessage.CANDIDATE) continue;
+                    if (m.getSrcRootId() != myId) continue;
+                    double w = m.getEdgeWeight();
+                    if (MSTMessage.lighter(w, m.getTieA(), m.getTieB(), bestW, bestA, bestB)) {
+                        bestW = w;
+                        bestOtherRoot = m.getTargetRootId();
+                        bestA = m.getTieA(); bestB = m.getTieB();
+                    }
+                }
+
+                if (bestOtherRoot != -1) {
+                    if (myId > bestOtherRoot) {
+                        value.hook(bestOtherRoot, bestA, bestB, bestW);
+                        value.addComponentWeight(bestW);
+                        aggregate(AGG_MST_WEIGHT, new DoubleWritable(bestW));
+                        aggregate(AGG_HOOKS, new LongWritable(1L));
+                    }
+                } else {
+                    // no member has an edge out of the component: it is final
+                    finishComponent(vertex);
+                }
+            }
+
+            // first pointer-jumping query goes out together with the hooks;
+            // a root's grandparent is itself, nothing to ask
+            sendParentQuery(vertex);
+
+        } else if (phase == PHASE_PARENT_REPLY) {
+            absorbComponents(vertex, messages);
+            long myParent = vertex.getValue().getParent();
+            for (M m : messages) {
+                if (m.getType() != MSTMessage.PARENT_QUERY) continue;
+                sendTo(m.getSrcVertexId(), parentReply(m.getSrcVertexId(), myParent));
+            }
+
+        } else if (phase == PHASE_PARENT_UPDATE) {
+            V value = vertex.getValue();
+            long myId = id(vertex.getId());
+            long oldParent = value.getParent();
+            long newParent = oldParent;
+
+            for (M m : messages) {
+                if (m.getType() != MSTMessage.PARENT_REPLY) continue;
+                newParent = m.getTargetRootId();
+            }
+
+            if (newParent != oldParent) {
+                value.setParent(newParent);
+                aggregate(AGG_PARENT_CHANGES, new LongWritable(1L));
+                // only vertices that moved can still be short of the root
+                sendParentQuery(vertex);
+            } else if (newParent != myId && value.getComponentSize() > 0) {
+                // first unchanged reply after hooking: the parent is the root for this round
+                sendTo(newParent, componentStats(value.getComponentSize(), value.getComponentWeight()));
+                value.releaseComponent();
+            }
+
+            if (value.getParent() == myId) {
+                aggregate(AGG_ROOT_COUNT, new LongWritable(1L));
+            }
+
+        } else if (phase == PHASE_CONTRACT) {
+            contractIntoRoot(vertex, messages);
+
+        } else if (phase == PHASE_FINISH) {
+            absorbComponents(vertex, messages);
+            if (vertex.getValue().getParent() == id(vertex.getId())) {
+                finishComponent(vertex);
+            }
+        }
+
+    }
+
+    private void readAnnounces(Vertex<I, V, E> vertex, Iterable<M> messages) {
+        if (nbrRoot == null) nbrRoot = new LongLongScratchMap(vertex.getNumEdges());
+        nbrRoot.clear(vertex.getNumEdges());
+        for (M m : messages) {
+            if (m.getType() == MSTMessage.ANNOUNCE) {
+                nbrRoot.put(m.getSrcVertexId(), m.getSrcRootId());
+            }
+        }
+    }
+
+    /**
+     * Reduces the vertex's edges to the lightest one per foreign root. Roots keep the result
+     * as their new edge set, members ship it to their root, drop their edges and halt; they stay
+     * in the graph because they may own an MST edge.
+     */
+    private void contractIntoRoot(Vertex<I, V, E> vertex, Iterable<M> messages) throws IOException {
+        long myId = id(vertex.getId());
+        V value = vertex.getValue();
+        long myRoot = value.getParent();
+        readAnnounces(vertex, messages);
+
+        clearLightest(vertex.getNumEdges());
+        for (Edge<I, E> e : vertex.getEdges()) {
+            long nbr = id(e.getTargetVertexId());
+            long r = nbrRoot.get(nbr, myRoot);
+            if (r == myRoot) continue;
+            keepLighter(r, weight(e.getValue()), nbr, myId, value);
+        }
+
+        if (myRoot == myId) {
+            vertex.setEdges(lightestAsOutEdges(value));
+            return;
+        }
+
+        for (int i = 0; i < lightest.slotCount(); i++) {
+            if (!lightest.isSlotUsed(i)) continue;
+            int slot = (int) lightest.valueAt(i);
+            sendTo(myRoot, contractEdge(lightest.keyAt(i), lightW[slot], lightA[slot], lightB[slot]));
+        }
+        OutEdges<I, E> none = getConf().createOutEdges();
+        none.initialize(0);
+        vertex.setEdges(none);
+        value.setContractedEnds(null);
+        vertex.voteToHalt();
+    }
+
+    private void mergeContractedEdges(Vertex<I, V, E> vertex, Iterable<M> messages) {
+        if (!messages.iterator().hasNext()) return;
+
+        long myId = id(vertex.getId());
+        V value = vertex.getValue();
+        clearLightest(vertex.getNumEdges());
+        for (Edge<I, E> e : vertex.getEdges()) {
+            long nbr = id(e.getTargetVertexId());
+            keepLighter(nbr, weight(e.getValue()), nbr, myId, value);
+        }
+        for (M m : messages) {
+            if (m.getType() != MSTMessage.CONTRACT_EDGE) continue;
+            keepLighter(m.getTargetRootId(), m.getEdgeWeight(), m.getTieA(), m.getTieB());
+        }
+        vertex.setEdges(lightestAsOutEdges(value));
+    }
+
+    /** Returns false if the root has no edge left, i.e. its component is finished. */
+    private boolean hookOnLightestEdge(Vertex<I, V, E> vertex) {
+        long myId = id(vertex.getId());
+        V value = vertex.getValue();
+        double bestW = Double.POSITIVE_INFINITY;
+        long bestOtherRoot = -1;
+        long tieA = 0, tieB = 0;
+
+        for (Edge<I, E> e : vertex.getEdges()) {
+            long nbr = id(e.getTargetVertexId());
+            if (nbr == myId) continue;
+            double w = weight(e.getValue());
+            // ties are broken on the original endpoints, as in the uncontracted job
+            int c = value.contractedIndex(nbr);
+            long a = c < 0 ? Math.min(myId, nbr) : value.contractedA(c);
+            long b = c < 0 ? Math.max(myId, nbr) : value.contractedB(c);
+            if (MSTMessage.lighter(w, a, b, bestW, tieA, tieB)) {
+                bestW = w;
+                bestOtherRoot = nbr;
+                tieA = a; tieB = b;
+            }
+        }
+
+        if (bestOtherRoot != -1 && myId > bestOtherRoot) {
+            value.hook(bestOtherRoot, tieA, tieB, bestW);
+            value.addComponentWeight(bestW);
+            aggregate(AGG_MST_WEIGHT, new DoubleWritable(bestW));
+            aggregate(AGG_HOOKS, new LongWritable(1L));
+        }
+        return bestOtherRoot != -1;
+    }
+
+    /** Every vertex starts as its own root, or as a member of its seed piece. */
+    private void initComponent(Vertex<I, V, E> vertex) {
+        V value = vertex.getValue();
+        long id = id(vertex.getId());
+        if (seeds == null) {
+            value.setParent(id);
+            value.startComponent();
+            return;
+        }
+        // a seeded vertex's parent is already its root, the same star shape pointer jumping leaves
+        value.setParent(seeds.root(id));
+        value.releaseComponent();
+        value.absorbComponent(seeds.size(id), seeds.weight(id));
+    }
+
+    private void absorbComponents(Vertex<I, V, E> vertex, Iterable<M> messages) {
+        for (M m : messages) {
+            if (m.getType() != MSTMessage.COMPONENT_STATS) continue;
+            vertex.getValue().absorbComponent(m.getComponentSize(), m.getForestWeight());
+        }
+    }
+
+    /**
+     * Reports a root whose component has no outgoing edge and halts it. Its members have halted
+     * (or were contracted into it) already, and no other component can reach it, so nothing wakes
+     * it again. Compact jobs report the dense root id; the master translates it for the log.
+     */
+    private void finishComponent(Vertex<I, V, E> vertex) {
+        V value = vertex.getValue();
+        aggregate(AGG_COMPONENTS, ComponentForest.of(id(vertex.getId()), value.getComponentSize(), value.getComponentWeight()));
+        vertex.voteToHalt();
+    }
+
+    private void clearLightest(int expectedSize) {
+        if (lightest == null) lightest = new LongLongScratchMap(expectedSize);
+        lightest.clear(expectedSize);
+        lightCount = 0;
+    }
+
+    /** An edge of the vertex itself: its endpoints come from the table of a contracted root. */
+    private void keepLighter(long targetRoot, double w, long nbr, long myId, V value) {
+        int c = value.contractedIndex(nbr);
+        if (c < 0) {
+            keepLighter(targetRoot, w, Math.min(myId, nbr), Math.max(myId, nbr));
+        } else {
+            keepLighter(targetRoot, w, value.contractedA(c), value.contractedB(c));
+        }
+    }
+
+    /**
+     * Keeps the lightest edge per foreign root in the Boruvka order. Weights are kept as double;
+     * a compact job's float weights convert back exactly.
+     */
+    private void keepLighter(long targetRoot, double w, long a, long b) {
+        long slot = lightest.get(targetRoot, -1L);
+        if (slot < 0) {
+            if (lightCount == lightW.length) {
+                lightW = Arrays.copyOf(lightW, 2 * lightCount);
+                lightA = Arrays.copyOf(lightA, 2 * lightCount);
+                lightB = Arrays.copyOf(lightB, 2 * lightCount);
+            }
+            slot = lightCount++;
+            lightest.put(targetRoot, slot);
+        } else if (!MSTMessage.lighter(w, a, b, lightW[(int) slot], lightA[(int) slot], lightB[(int) slot])) {
+            return;
+        }
+        lightW[(int) slot] = w;
+        lightA[(int) slot] = a;
+        lightB[(int) slot] = b;
+    }
+
+    /** The kept edges as the root's new edge set, and their endpoints as its table. */
+    private OutEdges<I, E> lightestAsOutEdges(V value) {
+        long[] roots = new long[lightest.size()];
+        int n = 0;
+        for (int i = 0; i < lightest.slotCount(); i++) {
+            if (lightest.isSlotUsed(i)) roots[n++] = lightest.keyAt(i);
+        }
+        Arrays.sort(roots);
+
+        OutEdges<I, E> edges = getConf().createOutEdges();
+        edges.initialize(n);
+        long[] ends = new long[3 * n];
+        for (int i = 0; i < n; i++) {
+            int slot = (int) lightest.get(roots[i], -1L);
+            edges.add(newEdge(roots[i], lightW[slot]));
+            ends[3 * i] = roots[i];
+            ends[3 * i + 1] = lightA[slot];
+            ends[3 * i + 2] = lightB[slot];
+        }
+        value.setContractedEnds(ends);
+        return edges;
+    }
+
+    /**
+     * Phase-2 scan: moves the cursor past every edge that leads into {@code myRoot}'s component
+     * (neighbours without an announce count as internal) and returns the new cursor, i.e. the
+     * vertex's lightest outgoing edge, or {@code edges.size()} if there is none.
+     */
+    public static int advanceToForeignEdge(WeightSortedEdges edges, LongLongScratchMap nbrRoot, long myRoot) {
+        int i = edges.getCursor();
+        while (i < edges.size() && nbrRoot.get(edges.targetAt(i), myRoot) == myRoot) i++;
+        edges.setCursor(i);
+        return i;
+    }
+
+    private void sendParentQuery(Vertex<I, V, E> vertex) {
+        long parent = vertex.getValue().getParent();
+        long myId = id(vertex.getId());
+        if (parent == myId) return;
+        sendTo(parent, parentQuery(myId));
+    }
+
+    private void sendTo(long target, M message) {
+        setId(targetId, target);
+        sendMessage(targetId, message);
+    }
+
+    private void countCutEdges(Vertex<I, V, E> vertex) {
+        if (partitionCount <= 0) return;
+        int own = partitioner.getPartition(vertex.getId(), partitionCount, 1);
+        for (Edge<I, E> e : vertex.getEdges()) {
+            edges++;
+            if (partitioner.getPartition(e.getTargetVertexId(), partitionCount, 1) != own) cutEdges++;
+        }
+    }
+
+    /** Counts what compute hands to Giraph, i.e. before the candidate combiner runs. */
+    @Override
+    public void sendMessage(I id, M message) {
+        if (metrics) {
+            messagesSent++;
+            bytesSent += message.serializedSize();
+        }
+        super.sendMessage(id, message);
+    }
+
+    @Override
+    public void preSuperstep() {
+        GiraphConstants.USE_OUT_OF_CORE_GRAPH.set(getConf(), false);
+        IntWritable p = getBroadcast(BCAST_PHASE);
+        phase = p.get();
+        contract = CONTRACT.get(getConf());
+        metrics = METRICS_FILE.get(getConf()) != null;
+        if (targetId == null) targetId = getConf().createVertexId();
+        activeVertices = 0;
+        messagesSent = 0;
+        bytesSent = 0;
+        if (phase == PHASE_INIT) {
+            String seedFile = SeedForest.SEED_FILE.get(getConf());
+            seeds = seedFile == null ? null : SeedForest.load(seedFile);
+            partitioner = getConf().createGraphPartitioner();
+            partitionCount = GiraphConstants.USER_PARTITION_COUNT.get(getConf());
+            edges = 0;
+            cutEdges = 0;
+        }
+    }
+
+    @Override
+    public void postSuperstep() {
+        if (phase == PHASE_INIT && partitionCount > 0) {
+            aggregate(AGG_EDGES, new LongWritable(edges));
+            aggregate(AGG_CUT_EDGES, new LongWritable(cutEdges));
+        }
+        if (!metrics) return;
+        aggregate(AGG_ACTIVE, new LongWritable(activeVertices));
+        aggregate(AGG_MESSAGES, new LongWritable(messagesSent));
+        aggregate(AGG_MESSAGE_BYTES, new LongWritable(bytesSent));
+    }
+}
@@ -1,140 +1,114 @@
 package org.example.mst;
 
-import org.apache.giraph.conf.GiraphConstants;
-import org.apache.giraph.graph.BasicComputation;
-import org.apache.giraph.graph.Vertex;
+import org.apache.giraph.combiner.MessageCombiner;
+import org.apache.giraph.conf.BooleanConfOption;
+import org.apache.giraph.conf.ClassConfOption;
+import org.apache.giraph.conf.StrConfOption;
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.edge.EdgeFactory;
 import org.apache.hadoop.io.DoubleWritable;
 import org.apache.hadoop.io.LongWritable;
+import org.example.mst.combiner.MinEdgeMessageCombiner;
 import org.example.mst.messages.MSTMessage;
-import org.apache.giraph.edge.Edge;
-
-import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-
 
-public class BoruvkaMSTComputation extends BasicComputation<
-        LongWritable, LongWritable, DoubleWritable, MSTMessage> {
+/**
+ * The Boruvka job on long ids and double weights; the phases themselves are in
+ * {@link BoruvkaComputation}. Also declares what every Boruvka job shares: phases, aggregator
+ * names and configuration options.
+ */
+public class BoruvkaMSTComputation extends BoruvkaComputation<
+        LongWritable, MSTVertexValue, DoubleWritable, MSTMessage> {
 
     public static final String AGG_MST_WEIGHT = "agg_mst_weight";
     public static final String AGG_ROOT_COUNT = "agg_root_count";
     public static final String AGG_PARENT_CHANGES = "agg_parent_changes";
     public static final String AGG_HOOKS = "agg_hooks";
+    public static final String AGG_EDGES = "agg_edges";
+    public static final String AGG_ACTIVE = "agg_active";
+    public static final String AGG_MESSAGES = "agg_messages";
+    public static final String AGG_MESSAGE_BYTES = "agg_message_bytes";
+    public static final String AGG_CUT_EDGES = "agg_cut_edges";
+    public static final String AGG_COMPONENTS = "agg_components";
+
+    public static final BooleanConfOption CONTRACT = new BooleanConfOption("boruvka.contract", false,
+            "Collapse every component into its root between Boruvka rounds, keeping only the lightest " +
+            "edge towards each other component");
+
+    public static final StrConfOption METRICS_FILE = new StrConfOption("boruvka.metrics.file", null,
+            "Where the master writes per-superstep phase metrics, as JSON (.json) or CSV (anything else); " +
+            "unset disables the counting");
+
+    public static final ClassConfOption<MessageCombiner> CANDIDATE_COMBINER = new ClassConfOption<>(
+            "boruvka.candidateCombiner", MinEdgeMessageCombiner.class, MessageCombiner.class,
+            "Combiner the master installs for CANDIDATE supersteps; must match the computation's id and message types");
+
+    /** Broadcast by {@link BoruvkaMasterCompute}: which phase every vertex runs this superstep. */
+    public static final String BCAST_PHASE = "bcast_phase";
+
+    public static final int PHASE_INIT = 0;
+    public static final int PHASE_ANNOUNCE = 1;
+    public static final int PHASE_CANDIDATE = 2;
+    public static final int PHASE_HOOK = 3;
+    public static final int PHASE_PARENT_REPLY = 4;
+    public static final int PHASE_PARENT_UPDATE = 5;
+    public static final int PHASE_CONTRACT = 6;
+    public static final int PHASE_FINISH = 7;
+
+    private static final String[] PHASE_NAMES = {
+            "INIT", "ANNOUNCE", "CANDIDATE", "HOOK", "PARENT_REPLY", "PARENT_UPDATE", "CONTRACT", "FINISH"
+    };
 
     @Override
-    public void compute(Vertex<LongWritable, LongWritable, DoubleWritable> vertex, Iterable<MSTMessage> messages) throws IOException {
-        long sid = getSuperstep();
-
-        if (sid == 0) {
-            vertex.setValue(new LongWritable(vertex.getId().get()));
-            return;
-        }
-
-        int phase = (int) (sid % 7);
-
-        if (phase == 1) {
-            long root = vertex.getValue().get();
-            sendMessageToAllEdges(vertex, MSTMessage.announce(vertex.getId().get(), root));
-
-        } else if (phase == 2) {
-            long myRoot = vertex.getValue().get();
-
-            Map<Long, Long> nbrRoot = new HashMap<>();
-            for (MSTMessage m : messages) {
-                if (m.type == 0) {
-                    nbrRoot.put(m.srcVertexId, m.srcRootId);
-                }
-            }
-
-            double bestW = Double.POSITIVE_INFINITY;
-            long bestOtherRoot = -1;
-            long tieA = 0, tieB = 0;
-
-            for (Edge<LongWritable, DoubleWritable> e : vertex.getEdges()) {
-                long nbr = e.getTargetVertexId().get();
-                Long r = nbrRoot.get(nbr);
-                if (r == null || r == myRoot) continue;
-
-                double w = e.getValue().get();
-                long a = Math.min(vertex.getId().get(), nbr);
-                long b = Math.max(vertex.getId().get(), nbr);
-
-                if (w < bestW || (w == bestW && (a < tieA || (a == tieA && b < tieB)))) {
-                    bestW = w;
-                    bestOtherRoot = r;
-                    tieA = a; tieB = b;
-                }
-            }
-
-            if (bestOtherRoot != -1) {
-                sendMessage(new LongWritable(myRoot),
-                        MSTMessage.candidate(myRoot, bestOtherRoot, bestW, tieA, tieB));
-            }
-
-        } else if (phase == 3) {
-            long myId = vertex.getId().get();
-            long parent = vertex.getValue().get();
-
-            if (parent == myId) {
-                double bestW = Double.POSITIVE_INFINITY;
-                long bestOtherRoot = -1;
-                long bestA = 0, bestB = 0;
-
-                for (MSTMessage m : messages) {
-                    if (m.type != 1) continue;
-                    if (m.srcRootId != myId) continue;
-                    double w = m.edgeWeight;
-                    if (w < bestW || (w == bestW && (m.tieA < bestA || (m.tieA == bestA && m.tieB < bestB)))) {
-                        bestW = w;
-                        bestOtherRoot = m.targetRootId;
-                        bestA = m.tieA; bestB = m.tieB;
-                    }
-                }
-
-                if (bestOtherRoot != -1) {
-                    if (myId > bestOtherRoot) {
-                        vertex.setValue(new LongWritable(bestOtherRoot));
-                        aggregate(AGG_MST_WEIGHT, new DoubleWritable(bestW));
-                        aggregate(AGG_HOOKS, new LongWritable(1L));
-                        sendMessage(new LongWritable(bestOtherRoot), MSTMessage.hook(myId, bestOtherRoot, bestW));
-                    }
-                }
-            }
-
-        } else if (phase == 4) {
-            long parent = vertex.getValue().get();
-            sendMessage(new LongWritable(parent), MSTMessage.parentQuery(vertex.getId().get()));
-
-        } else if (phase == 5) {
-            long myParent = vertex.getValue().get();
-            for (MSTMessage m : messages) {
-                if (m.type != 3) continue;
-                sendMessage(new LongWritable(m.srcVertexId), MSTMessage.parentReply(m.srcVertexId, myParent));
-            }
-
-        } else if (phase == 6) {
-            long oldParent = vertex.getValue().get();
-            long newParent = oldParent;
-
-            for (MSTMessage m : messages) {
-                if (m.type != 4) continue;
-                newParent = m.targetRootId;
-            }
-
-            if (newParent != oldParent) {
-                vertex.setValue(new LongWritable(newParent));
-                aggregate(AGG_PARENT_CHANGES, new LongWritable(1L));
-            }
-
-            if (vertex.getValue().get() == vertex.getId().get()) {
-                aggregate(AGG_ROOT_COUNT, new LongWritable(1L));
-            }
-        }
+    protected long id(LongWritable id) {
+        return id.get();
+    }
+
+    @Override
+    protected void setId(LongWritable id, long value) {
+        id.set(value);
+    }
 
+    @Override
+    protected double weight(DoubleWritable weight) {
+        return weight.get();
+    }
+
+    @Override
+    protected Edge<LongWritable, DoubleWritable> newEdge(long target, double weight) {
+        return EdgeFactory.create(new LongWritable(target), new DoubleWritable(weight));
+    }
+
+    @Override
+    protected MSTMessage announce(long srcVertexId, long srcRootId) {
+        return MSTMessage.announce(srcVertexId, srcRootId);
     }
 
     @Override
-    public void preSuperstep() {
-        GiraphConstants.USE_OUT_OF_CORE_GRAPH.set(getConf(), false);
+    protected MSTMessage candidate(long srcRootId, long targetRootId, double w, long a, long b) {
+        return MSTMessage.candidate(srcRootId, targetRootId, w, a, b);
+    }
+
+    @Override
+    protected MSTMessage parentQuery(long childVertexId) {
+        return MSTMessage.parentQuery(childVertexId);
+    }
+
+    @Override
+    protected MSTMessage parentReply(long childVertexId, long parentsParentId) {
+        return MSTMessage.parentReply(childVertexId, parentsParentId);
+    }
+
+    @Override
+    protected MSTMessage contractEdge(long targetRootId, double w, long a, long b) {
+        return MSTMessage.contractEdge(targetRootId, w, a, b);
+    }
+
+    @Override
+    protected MSTMessage componentStats(long vertices, double forestWeight) {
+        return MSTMessage.componentStats(vertices, forestWeight);
+    }
+
+    public static String phaseName(int phase) {
+        return phase >= 0 && phase < PHASE_NAMES.length ? PHASE_NAMES[phase] : "UNKNOWN_" + phase;
     }
 }
@@ -1,47 +1,226 @@
 package org.example.mst;
 
+import org.apache.giraph.conf.GiraphConstants;
 import org.apache.giraph.master.DefaultMasterCompute;
 import org.apache.giraph.aggregators.DoubleSumAggregator;
 import org.apache.giraph.aggregators.LongSumAggregator;
 import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.LongWritable;
+import org.example.mst.compact.IdTable;
+import org.example.mst.incremental.SeedForest;
+import org.example.mst.metrics.ComponentForest;
+import org.example.mst.metrics.ComponentForestAggregator;
+import org.example.mst.metrics.PhaseMetricsReport;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.example.mst.BoruvkaMSTComputation.*;
+
+/**
+ * Drives the phase state machine. A Boruvka round is ANNOUNCE -> CANDIDATE -> HOOK,
+ * followed by PARENT_REPLY -> PARENT_UPDATE repeated until no parent changes, so every
+ * component is a star before the next round. HOOK and PARENT_UPDATE send the parent
+ * queries themselves, so each pointer jump costs two supersteps.
+ * <p>
+ * With {@link BoruvkaMSTComputation#CONTRACT} the round instead starts with
+ * ANNOUNCE -> CONTRACT, after which only roots remain and HOOK reads their own edges.
+ * <p>
+ * Vertices without an edge out of their component vote to halt after CANDIDATE, and roots that
+ * receive no candidate in HOOK report their component and halt too, so later rounds only touch
+ * the unfinished part of the graph. Halted roots are not counted, which is why a single root
+ * left means the job is done; a FINISH superstep then lets it collect the totals still in flight.
+ * <p>
+ * With {@link BoruvkaMSTComputation#METRICS_FILE} set, every superstep's phase, wall time and
+ * worker counters are collected into a {@link PhaseMetricsReport}, written when the job halts.
+ * The report is not part of the checkpointed state.
+ * <p>
+ * The wall time of all supersteps is summed for {@link #superstepNanos}, the same span Giraph's
+ * per-superstep timers cover, without input loading and output.
+ */
 public class BoruvkaMasterCompute extends DefaultMasterCompute {
 
+    private static final AtomicLong SUPERSTEP_NANOS = new AtomicLong();
+
+    private int phase = PHASE_INIT;
+    private long rounds;
+    private long jumpIterations;
+    private boolean contract;
+    private String metricsFile;
+    private PhaseMetricsReport metrics;
+    private long superstepStart;
+
     @Override
     public void initialize() throws InstantiationException, IllegalAccessException {
-        registerPersistentAggregator(BoruvkaMSTComputation.AGG_MST_WEIGHT, DoubleSumAggregator.class);
-        registerPersistentAggregator(BoruvkaMSTComputation.AGG_ROOT_COUNT, LongSumAggregator.class);
-        registerPersistentAggregator(BoruvkaMSTComputation.AGG_PARENT_CHANGES, LongSumAggregator.class);
-        registerPersistentAggregator(BoruvkaMSTComputation.AGG_HOOKS, LongSumAggregator.class);
+        registerPersistentAggregator(AGG_MST_WEIGHT, DoubleSumAggregator.class);
+        registerAggregator(AGG_ROOT_COUNT, LongSumAggregator.class);
+        registerAggregator(AGG_PARENT_CHANGES, LongSumAggregator.class);
+        registerAggregator(AGG_HOOKS, LongSumAggregator.class);
+        registerAggregator(AGG_EDGES, LongSumAggregator.class);
+        registerAggregator(AGG_ACTIVE, LongSumAggregator.class);
+        registerAggregator(AGG_MESSAGES, LongSumAggregator.class);
+        registerAggregator(AGG_MESSAGE_BYTES, LongSumAggregator.class);
+        registerAggregator(AGG_CUT_EDGES, LongSumAggregator.class);
+        registerPersistentAggregator(AGG_COMPONENTS, ComponentForestAggregator.class);
 
-        setAggregatedValue(BoruvkaMSTComputation.AGG_MST_WEIGHT, new DoubleWritable(0.0));
-        setAggregatedValue(BoruvkaMSTComputation.AGG_ROOT_COUNT, new LongWritable(0L));
-        setAggregatedValue(BoruvkaMSTComputation.AGG_PARENT_CHANGES, new LongWritable(0L));
-        setAggregatedValue(BoruvkaMSTComputation.AGG_HOOKS, new LongWritable(0L));
+        // an incremental run starts from the weight of the forest edges it keeps,
+        // and from the components that never enter the job
+        String seedFile = SeedForest.SEED_FILE.get(getConf());
+        double baseWeight = seedFile == null ? 0.0 : SeedForest.load(seedFile).baseWeight();
+        setAggregatedValue(AGG_MST_WEIGHT, new DoubleWritable(baseWeight));
+        if (seedFile != null) {
+            // merged into, so not the shared cached copy
+            ComponentForest untouched = new ComponentForest();
+            untouched.merge(SeedForest.load(seedFile).untouched());
+            setAggregatedValue(AGG_COMPONENTS, untouched);
+        }
+        contract = CONTRACT.get(getConf());
+        metricsFile = METRICS_FILE.get(getConf());
+        if (metricsFile != null) metrics = new PhaseMetricsReport();
     }
 
     @Override
     public void compute() {
-        long sid = getSuperstep();
-        if (sid == 0) return;
-
-        int phase = (int) (sid % 7);
-        if (phase == 6) {
-            long rootCount = ((LongWritable) getAggregatedValue(BoruvkaMSTComputation.AGG_ROOT_COUNT)).get();
-            long hooks = ((LongWritable) getAggregatedValue(BoruvkaMSTComputation.AGG_HOOKS)).get();
+        long now = System.nanoTime();
+        if (getSuperstep() == 0) {
+            phase = PHASE_INIT;
+        } else {
+            SUPERSTEP_NANOS.addAndGet(now - superstepStart);
+            if (metrics != null) recordFinishedSuperstep(now);
+            phase = nextPhase(phase);
+            if (isHalted()) {
+                logForest();
+                writeMetrics();
+                return;
+            }
+        }
+        superstepStart = now;
 
-            setAggregatedValue(BoruvkaMSTComputation.AGG_ROOT_COUNT, new LongWritable(0L));
-            setAggregatedValue(BoruvkaMSTComputation.AGG_PARENT_CHANGES, new LongWritable(0L));
-            setAggregatedValue(BoruvkaMSTComputation.AGG_HOOKS, new LongWritable(0L));
+        // candidates only need the lightest one per root;
+        // the combiner carries over between supersteps, so it is cleared explicitly
+        setMessageCombiner(phase == PHASE_CANDIDATE ? CANDIDATE_COMBINER.get(getConf()) : null);
+        broadcast(BCAST_PHASE, new IntWritable(phase));
+    }
 
-            if (rootCount == 1 || hooks == 0) {
+    private int nextPhase(int finished) {
+        switch (finished) {
+            case PHASE_INIT:
+                logEdgeCut();
+                rounds = 1;
+                return contract ? PHASE_HOOK : PHASE_ANNOUNCE;
+            case PHASE_ANNOUNCE:
+                return contract ? PHASE_CONTRACT : PHASE_CANDIDATE;
+            case PHASE_CANDIDATE:
+            case PHASE_CONTRACT:
+                return PHASE_HOOK;
+            case PHASE_HOOK:
+                if (contract) {
+                    System.out.printf("[Boruvka] round %d: %d edges remaining%n", rounds, getLong(AGG_EDGES));
+                }
+                if (getLong(AGG_HOOKS) == 0) {
+                    haltComputation();
+                    return finished;
+                }
+                jumpIterations++;
+                return PHASE_PARENT_REPLY;
+            case PHASE_PARENT_REPLY:
+                return PHASE_PARENT_UPDATE;
+            case PHASE_PARENT_UPDATE:
+                if (getLong(AGG_PARENT_CHANGES) > 0) {
+                    jumpIterations++;
+                    return PHASE_PARENT_REPLY;
+                }
+                if (getLong(AGG_ROOT_COUNT) <= 1) {
+                    return PHASE_FINISH;
+                }
+                rounds++;
+                return PHASE_ANNOUNCE;
+            case PHASE_FINISH:
                 haltComputation();
-            }
+                return finished;
+            default:
+                throw new IllegalStateException("Unknown Boruvka phase " + finished);
+        }
+    }
+
+    private void logEdgeCut() {
+        long edges = getLong(AGG_EDGES);
+        if (edges == 0) return;
+        long cut = getLong(AGG_CUT_EDGES);
+        System.out.printf("[Boruvka] edge cut: %d of %d edges cross partitions (%.1f%%), partitioner %s%n",
+                cut, edges, 100.0 * cut / edges, GiraphConstants.GRAPH_PARTITIONER_FACTORY_CLASS.get(getConf()).getSimpleName());
+    }
+
+    private void logForest() {
+        ComponentForest forest = (ComponentForest) getAggregatedValue(AGG_COMPONENTS);
+        // compact jobs report dense root ids
+        String idTable = IdTable.ID_TABLE.get(getConf());
+        IdTable ids = idTable == null ? null : IdTable.load(idTable);
+        System.out.printf("[Boruvka] spanning forest: %d component(s), total weight %.6f%n",
+                forest.getComponents(), forest.getTotalWeight());
+        for (int i = 0; i < forest.getTopCount(); i++) {
+            System.out.printf("[Boruvka]   component %d: %d vertices, weight %.6f%n",
+                    ids == null ? forest.getTopRoot(i) : ids.originalId((int) forest.getTopRoot(i)),
+                    forest.getTopSize(i), forest.getTopWeight(i));
+        }
+    }
+
+    /** The aggregators still hold what the superstep that just ended produced. */
+    private void recordFinishedSuperstep(long now) {
+        metrics.record(getSuperstep() - 1, rounds, phase, now - superstepStart,
+                getLong(AGG_ACTIVE), getLong(AGG_MESSAGES), getLong(AGG_MESSAGE_BYTES),
+                getLong(AGG_ROOT_COUNT), getLong(AGG_HOOKS), getLong(AGG_PARENT_CHANGES));
+    }
+
+    private void writeMetrics() {
+        if (metrics == null) return;
+        try {
+            metrics.write(metricsFile);
+            System.out.println("[Boruvka] phase metrics written to " + metricsFile);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write phase metrics to " + metricsFile, e);
         }
     }
 
+    /** Summed superstep wall time of the jobs in this JVM since the last {@link #resetStats}. */
+    public static long superstepNanos() {
+        return SUPERSTEP_NANOS.get();
+    }
+
+    public static void resetStats() {
+        SUPERSTEP_NANOS.set(0);
+    }
+
+    private long getLong(String name) {
+        return ((LongWritable) getAggregatedValue(name)).get();
+    }
+
     public double getMstWeight() {
-        return ((DoubleWritable) getAggregatedValue(BoruvkaMSTComputation.AGG_MST_WEIGHT)).get();
+        return ((DoubleWritable) getAggregatedValue(AGG_MST_WEIGHT)).get();
+    }
+
+    public long getRounds() {
+        return rounds;
+    }
+
+    public long getJumpIterations() {
+        return jumpIterations;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(phase);
+        out.writeLong(rounds);
+        out.writeLong(jumpIterations);
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        phase = in.readInt();
+        rounds = in.readLong();
+        jumpIterations = in.readLong();
     }
 }
@@ -0,0 +1,156 @@
+package org.example.mst;
+
+import org.apache.hadoop.io.Writable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Parent pointer of a vertex plus the MST edge it contributed. A vertex stops being a root the
+ * moment it hooks and never hooks again, so every MST edge is owned by exactly one vertex: the
+ * root that picked it in HOOK.
+ * <p>
+ * Each vertex also owns its component's spanning-forest totals until it hooks: a root holds the
+ * vertex count and forest weight of everything merged into it so far, and hands them to its new
+ * root once pointer jumping has found it. Vertices that vote to halt keep the parent they had at
+ * that point, which need not be the final root.
+ * <p>
+ * The totals live here; {@link MSTVertexValue} and {@link CompactMSTVertexValue} store the
+ * parent and the MST edge at the id and weight width of their job and read and write them
+ * widened to long and double.
+ * <p>
+ * With {@code --contract} a root's edges lead to other roots, so it also keeps the original
+ * endpoints of each of them: (target root, a, b) triples sorted by target root. A hook records
+ * those endpoints as its MST edge.
+ */
+public abstract class BoruvkaVertexValue implements Writable {
+    private boolean hasMstEdge;
+    private long componentSize;
+    private double componentWeight;
+    /** Contracted roots only: (target root, a, b) per edge, sorted by target root; else null. */
+    private long[] contractedEnds;
+
+    public abstract long getParent();
+
+    public abstract void setParent(long parent);
+
+    public abstract long getEdgeA();
+
+    public abstract long getEdgeB();
+
+    public abstract double getEdgeWeight();
+
+    /** Stores the MST edge; {@code (0, 0, 0)} clears it. */
+    protected abstract void setMstEdge(long a, long b, double w);
+
+    protected abstract void writeParent(DataOutput out) throws IOException;
+
+    protected abstract void readParent(DataInput in) throws IOException;
+
+    protected abstract void writeMstEdge(DataOutput out) throws IOException;
+
+    protected abstract void readMstEdge(DataInput in) throws IOException;
+
+    /** Hooks this root under {@code newParent} through the edge (a, b, w), a <= b. */
+    public void hook(long newParent, long a, long b, double w) {
+        setParent(newParent);
+        hasMstEdge = true;
+        setMstEdge(a, b, w);
+    }
+
+    /** A fresh single-vertex component. */
+    public void startComponent() {
+        componentSize = 1;
+        componentWeight = 0.0;
+    }
+
+    /** Adds a merged component's totals to the ones this vertex owns. */
+    public void absorbComponent(long size, double weight) {
+        componentSize += size;
+        componentWeight += weight;
+    }
+
+    public void addComponentWeight(double w) {
+        componentWeight += w;
+    }
+
+    /** Gives up the totals once they have been sent to the new root. */
+    public void releaseComponent() {
+        componentSize = 0;
+        componentWeight = 0.0;
+    }
+
+    /** Vertices in the component this vertex owns the totals of, 0 once they were handed on. */
+    public long getComponentSize() {
+        return componentSize;
+    }
+
+    public double getComponentWeight() {
+        return componentWeight;
+    }
+
+    public boolean hasMstEdge() {
+        return hasMstEdge;
+    }
+
+    /** Replaces the endpoint table of a contracted root, see the class comment; null drops it. */
+    public void setContractedEnds(long[] triples) {
+        contractedEnds = triples;
+    }
+
+    /**
+     * Index of the edge towards {@code targetRoot} in the endpoint table, for
+     * {@link #contractedA} and {@link #contractedB}, or -1 if the vertex was never contracted
+     * (its edges still carry their original endpoints).
+     */
+    public int contractedIndex(long targetRoot) {
+        if (contractedEnds == null) return -1;
+        int lo = 0, hi = contractedEnds.length / 3 - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long r = contractedEnds[3 * mid];
+            if (r < targetRoot) lo = mid + 1;
+            else if (r > targetRoot) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    public long contractedA(int index) {
+        return contractedEnds[3 * index + 1];
+    }
+
+    public long contractedB(int index) {
+        return contractedEnds[3 * index + 2];
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        writeParent(out);
+        out.writeBoolean(hasMstEdge);
+        if (hasMstEdge) writeMstEdge(out);
+        out.writeLong(componentSize);
+        if (componentSize > 0) out.writeDouble(componentWeight);
+        out.writeInt(contractedEnds == null ? -1 : contractedEnds.length);
+        if (contractedEnds != null) {
+            for (long v : contractedEnds) out.writeLong(v);
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        readParent(in);
+        hasMstEdge = in.readBoolean();
+        if (hasMstEdge) {
+            readMstEdge(in);
+        } else {
+            setMstEdge(0, 0, 0.0);
+        }
+        componentSize = in.readLong();
+        componentWeight = componentSize > 0 ? in.readDouble() : 0.0;
+        int ends = in.readInt();
+        contractedEnds = ends < 0 ? null : new long[ends];
+        for (int i = 0; i < ends; i++) contractedEnds[i] = in.readLong();
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.mst;
+
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.edge.EdgeFactory;
+import org.apache.hadoop.io.FloatWritable;
+import org.apache.hadoop.io.IntWritable;
+import org.example.mst.messages.CompactMSTMessage;
+
+/**
+ * The Boruvka job on the id-remapped graph written by {@link org.example.mst.compact.IdRemapping}:
+ * dense int ids and float weights, with the phases of {@link BoruvkaComputation} and the same
+ * aggregators and {@link BoruvkaMasterCompute}. Dense ids keep the order of the original ids, so
+ * ties are broken the same way and the output format only has to translate ids back.
+ * Incremental seeds are not supported, they are keyed by original id.
+ */
+public class CompactBoruvkaMSTComputation extends BoruvkaComputation<
+        IntWritable, CompactMSTVertexValue, FloatWritable, CompactMSTMessage> {
+
+    @Override
+    protected long id(IntWritable id) {
+        return id.get();
+    }
+
+    @Override
+    protected void setId(IntWritable id, long value) {
+        id.set((int) value);
+    }
+
+    @Override
+    protected double weight(FloatWritable weight) {
+        return weight.get();
+    }
+
+    /** Weights only come from the job's own float edges, so narrowing them back is exact. */
+    @Override
+    protected Edge<IntWritable, FloatWritable> newEdge(long target, double weight) {
+        return EdgeFactory.create(new IntWritable((int) target), new FloatWritable((float) weight));
+    }
+
+    @Override
+    protected CompactMSTMessage announce(long srcVertexId, long srcRootId) {
+        return CompactMSTMessage.announce((int) srcVertexId, (int) srcRootId);
+    }
+
+    @Override
+    protected CompactMSTMessage candidate(long srcRootId, long targetRootId, double w, long a, long b) {
+        return CompactMSTMessage.candidate((int) srcRootId, (int) targetRootId, (float) w, (int) a, (int) b);
+    }
+
+    @Override
+    protected CompactMSTMessage parentQuery(long childVertexId) {
+        return CompactMSTMessage.parentQuery((int) childVertexId);
+    }
+
+    @Override
+    protected CompactMSTMessage parentReply(long childVertexId, long parentsParentId) {
+        return CompactMSTMessage.parentReply((int) childVertexId, (int) parentsParentId);
+    }
+
+    @Override
+    protected CompactMSTMessage contractEdge(long targetRootId, double w, long a, long b) {
+        return CompactMSTMessage.contractEdge((int) targetRootId, (float) w, (int) a, (int) b);
+    }
+
+    @Override
+    protected CompactMSTMessage componentStats(long vertices, double forestWeight) {
+        return CompactMSTMessage.componentStats((int) vertices, forestWeight);
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.mst;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * {@link BoruvkaVertexValue} of the compact job: dense int ids and a float MST edge weight, read
+ * and written as long and double. The component's forest weight stays a double, like the job's
+ * MST_WEIGHT aggregator.
+ */
+public class CompactMSTVertexValue extends BoruvkaVertexValue {
+    private int parent;
+    private int edgeA;
+    private int edgeB;
+    private float edgeWeight;
+
+    @Override
+    public long getParent() {
+        return parent;
+    }
+
+    @Override
+    public void setParent(long parent) {
+        this.parent = (int) parent;
+    }
+
+    @Override
+    public long getEdgeA() {
+        return edgeA;
+    }
+
+    @Override
+    public long getEdgeB() {
+        return edgeB;
+    }
+
+    @Override
+    public double getEdgeWeight() {
+        return edgeWeight;
+    }
+
+    /** {@code w} is always a float weight of the job widened to double, so the cast is exact. */
+    @Override
+    protected void setMstEdge(long a, long b, double w) {
+        edgeA = (int) a;
+        edgeB = (int) b;
+        edgeWeight = (float) w;
+    }
+
+    @Override
+    protected void writeParent(DataOutput out) throws IOException {
+        out.writeInt(parent);
+    }
+
+    @Override
+    protected void readParent(DataInput in) throws IOException {
+        parent = in.readInt();
+    }
+
+    @Override
+    protected void writeMstEdge(DataOutput out) throws IOException {
+        out.writeInt(edgeA);
+        out.writeInt(edgeB);
+        out.writeFloat(edgeWeight);
+    }
+
+    @Override
+    protected void readMstEdge(DataInput in) throws IOException {
+        edgeA = in.readInt();
+        edgeB = in.readInt();
+        edgeWeight = in.readFloat();
+    }
+}
@@ -8,6 +8,8 @@ public class LogMstWeightMasterCompute extends BoruvkaMasterCompute {
         if (isHalted()) {
             double w = getMstWeight();
             System.out.printf("MST_WEIGHT=%.6f%n", w);
+            System.out.printf("BORUVKA_ROUNDS=%d JUMP_ITERATIONS=%d SUPERSTEPS=%d%n",
+                    getRounds(), getJumpIterations(), getSuperstep());
         }
     }
 }
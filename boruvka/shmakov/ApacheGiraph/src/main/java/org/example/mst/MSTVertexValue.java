@@ -0,0 +1,69 @@
+package org.example.mst;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/** {@link BoruvkaVertexValue} of the regular job: long ids and a double MST edge weight. */
+public class MSTVertexValue extends BoruvkaVertexValue {
+    private long parent;
+    private long edgeA;
+    private long edgeB;
+    private double edgeWeight;
+
+    @Override
+    public long getParent() {
+        return parent;
+    }
+
+    @Override
+    public void setParent(long parent) {
+        this.parent = parent;
+    }
+
+    @Override
+    public long getEdgeA() {
+        return edgeA;
+    }
+
+    @Override
+    public long getEdgeB() {
+        return edgeB;
+    }
+
+    @Override
+    public double getEdgeWeight() {
+        return edgeWeight;
+    }
+
+    @Override
+    protected void setMstEdge(long a, long b, double w) {
+        edgeA = a;
+        edgeB = b;
+        edgeWeight = w;
+    }
+
+    @Override
+    protected void writeParent(DataOutput out) throws IOException {
+        out.writeLong(parent);
+    }
+
+    @Override
+    protected void readParent(DataInput in) throws IOException {
+        parent = in.readLong();
+    }
+
+    @Override
+    protected void writeMstEdge(DataOutput out) throws IOException {
+        out.writeLong(edgeA);
+        out.writeLong(edgeB);
+        out.writeDouble(edgeWeight);
+    }
+
+    @Override
+    protected void readMstEdge(DataInput in) throws IOException {
+        edgeA = in.readLong();
+        edgeB = in.readLong();
+        edgeWeight = in.readDouble();
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.mst.combiner;
+
+import org.apache.giraph.combiner.MessageCombiner;
+import org.apache.hadoop.io.IntWritable;
+import org.example.mst.messages.CompactMSTMessage;
+import org.example.mst.messages.MSTMessage;
+
+/**
+ * {@link MinEdgeMessageCombiner} for the compact job.
+ */
+public class CompactMinEdgeMessageCombiner implements MessageCombiner<IntWritable, CompactMSTMessage> {
+
+    @Override
+    public void combine(IntWritable vertexIndex, CompactMSTMessage originalMessage, CompactMSTMessage messageToCombine) {
+        if (CompactMSTMessage.lighter(messageToCombine.edgeWeight, messageToCombine.tieA, messageToCombine.tieB,
+                originalMessage.edgeWeight, originalMessage.tieA, originalMessage.tieB)) {
+            originalMessage.set(messageToCombine);
+        }
+    }
+
+    @Override
+    public CompactMSTMessage createInitialMessage() {
+        CompactMSTMessage m = new CompactMSTMessage();
+        m.type = MSTMessage.CANDIDATE;
+        m.edgeWeight = Float.POSITIVE_INFINITY;
+        return m;
+    }
+}
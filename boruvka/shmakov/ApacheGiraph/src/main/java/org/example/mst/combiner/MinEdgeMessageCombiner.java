@@ -0,0 +1,29 @@
+package org.example.mst.combiner;
+
+import org.apache.giraph.combiner.MessageCombiner;
+import org.apache.hadoop.io.LongWritable;
+import org.example.mst.messages.MSTMessage;
+
+/**
+ * Keeps only the lightest candidate per target root, using the same (weight, tieA, tieB)
+ * order as the HOOK phase. The master sets it for CANDIDATE supersteps only, which send
+ * nothing but candidates, see {@link org.example.mst.BoruvkaMasterCompute}.
+ */
+public class MinEdgeMessageCombiner implements MessageCombiner<LongWritable, MSTMessage> {
+
+    @Override
+    public void combine(LongWritable vertexIndex, MSTMessage originalMessage, MSTMessage messageToCombine) {
+        if (MSTMessage.lighter(messageToCombine.edgeWeight, messageToCombine.tieA, messageToCombine.tieB,
+                originalMessage.edgeWeight, originalMessage.tieA, originalMessage.tieB)) {
+            originalMessage.set(messageToCombine);
+        }
+    }
+
+    @Override
+    public MSTMessage createInitialMessage() {
+        MSTMessage m = new MSTMessage();
+        m.type = MSTMessage.CANDIDATE;
+        m.edgeWeight = Double.POSITIVE_INFINITY;
+        return m;
+    }
+}
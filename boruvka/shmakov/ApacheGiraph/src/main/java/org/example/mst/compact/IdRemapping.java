@@ -0,0 +1,68 @@
+package org.example.mst.compact;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.example.mst.input.CompactBinaryEdgeInputFormat;
+import org.example.mst.input.EdgeFileReader;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+/**
+ * Load-time pass of the compact job: renumbers the vertices of an input file to dense int ids
+ * and writes the graph as a {@link CompactBinaryEdgeInputFormat} file plus the {@link IdTable}
+ * to translate back. Dense ids follow the order of the original ids, so the Boruvka tie order
+ * is unchanged. Weights are rounded to float; symmetric formats are expanded into both
+ * directions. Two passes over the input, only the distinct ids are held in memory.
+ */
+public final class IdRemapping {
+    public final int vertices;
+    public final long edges;
+
+    private IdRemapping(int vertices, long edges) {
+        this.vertices = vertices;
+        this.edges = edges;
+    }
+
+    public static IdRemapping write(String input, String edgeFile, String idFile) throws IOException {
+        LongOpenHashSet seen = new LongOpenHashSet();
+        EdgeFileReader.read(input, (u, v, w) -> {
+            seen.add(u);
+            seen.add(v);
+        });
+        long[] ids = seen.toLongArray();
+        Arrays.parallelSort(ids);
+        IdTable.write(idFile, ids);
+
+        boolean symmetric = EdgeFileReader.isSymmetric(input);
+        long[] written = new long[1];
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(edgeFile), 1 << 16))) {
+            out.writeInt(CompactBinaryEdgeInputFormat.MAGIC);
+            out.writeInt(CompactBinaryEdgeInputFormat.VERSION);
+            out.writeLong(0L); // patched below
+            EdgeFileReader.read(input, (u, v, w) -> {
+                int a = Arrays.binarySearch(ids, u);
+                int b = Arrays.binarySearch(ids, v);
+                float f = (float) w;
+                out.writeInt(a);
+                out.writeInt(b);
+                out.writeFloat(f);
+                written[0]++;
+                if (symmetric) {
+                    out.writeInt(b);
+                    out.writeInt(a);
+                    out.writeFloat(f);
+                    written[0]++;
+                }
+            });
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(edgeFile, "rw")) {
+            raf.seek(8);
+            raf.writeLong(written[0]);
+        }
+        return new IdRemapping(ids.length, written[0]);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.mst.compact;
+
+import org.apache.giraph.conf.StrConfOption;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Original id of every dense vertex id of a compact job: dense id {@code i} is the {@code i}-th
+ * smallest original id. File layout: magic, count, then the original ids ascending, big-endian.
+ */
+public final class IdTable {
+    public static final StrConfOption ID_TABLE = new StrConfOption("boruvka.compact.idTable", null,
+            "Dense id -> original id table written by IdRemapping; set for compact jobs only");
+
+    private static final int MAGIC = 0x49445442; // "IDTB"
+    private static final Map<String, IdTable> LOADED = new ConcurrentHashMap<>();
+
+    private final long[] ids;
+
+    private IdTable(long[] ids) {
+        this.ids = ids;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long originalId(int denseId) {
+        return ids[denseId];
+    }
+
+    static void write(String file, long[] ids) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(ids.length);
+            for (long id : ids) out.writeLong(id);
+        }
+    }
+
+    /** Loads {@code file} once per JVM; the master and every output thread share it. */
+    public static IdTable load(String file) {
+        return LOADED.computeIfAbsent(file, f -> {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), 1 << 16))) {
+                if (in.readInt() != MAGIC) throw new IOException(f + " is not an id table file");
+                long[] ids = new long[in.readInt()];
+                for (int i = 0; i < ids.length; i++) ids[i] = in.readLong();
+                return new IdTable(ids);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read id table " + f, e);
+            }
+        });
+    }
+
+    /** Drops the cached copy of {@code file}, e.g. before it is rewritten for the next job. */
+    public static void evict(String file) {
+        LOADED.remove(file);
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.mst.edge;
+
+/**
+ * What the Boruvka phases read from {@link WeightSortedLongDoubleEdges} and
+ * {@link WeightSortedIntFloatEdges}: the (weight, target) order and its cursor, with targets
+ * widened to long and weights to double.
+ */
+public interface WeightSortedEdges {
+    int size();
+
+    /** Index of the first edge that may still lead outside the vertex's component. */
+    int getCursor();
+
+    void setCursor(int cursor);
+
+    long targetAt(int i);
+
+    double weightAt(int i);
+}
@@ -0,0 +1,228 @@
+package org.example.mst.edge;
+
+import it.unimi.dsi.fastutil.Arrays;
+import it.unimi.dsi.fastutil.Swapper;
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.edge.EdgeFactory;
+import org.apache.giraph.edge.ReusableEdge;
+import org.apache.giraph.edge.ReuseObjectsOutEdges;
+import org.apache.giraph.utils.Trimmable;
+import org.apache.hadoop.io.FloatWritable;
+import org.apache.hadoop.io.IntWritable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link WeightSortedLongDoubleEdges} for the compact job: dense int targets and float weights,
+ * 8 bytes per edge instead of 16. Dense ids are assigned in ascending order of the original ids,
+ * so (weight, target) is still the Boruvka order of the original graph, up to weights that only
+ * differ beyond float precision. The cursor is advanced by
+ * {@link org.example.mst.BoruvkaComputation}, which reads targets and weights widened.
+ */
+public class WeightSortedIntFloatEdges implements ReuseObjectsOutEdges<IntWritable, FloatWritable>, Trimmable,
+        WeightSortedEdges {
+    private static final int[] NO_TARGETS = new int[0];
+    private static final float[] NO_WEIGHTS = new float[0];
+
+    private int[] targets = NO_TARGETS;
+    private float[] weights = NO_WEIGHTS;
+    private int size;
+    private int cursor;
+    private boolean sorted = true;
+
+    /** Moves targets and weights together for both sort orders. */
+    private final Swapper swapper = new Swapper() {
+        @Override
+        public void swap(int a, int b) {
+            int t = targets[a]; targets[a] = targets[b]; targets[b] = t;
+            float w = weights[a]; weights[a] = weights[b]; weights[b] = w;
+        }
+    };
+
+    @Override
+    public void initialize(Iterable<Edge<IntWritable, FloatWritable>> edges) {
+        initialize();
+        for (Edge<IntWritable, FloatWritable> e : edges) add(e);
+    }
+
+    @Override
+    public void initialize(int capacity) {
+        targets = capacity == 0 ? NO_TARGETS : new int[capacity];
+        weights = capacity == 0 ? NO_WEIGHTS : new float[capacity];
+        size = 0;
+        cursor = 0;
+        sorted = true;
+    }
+
+    @Override
+    public void initialize() {
+        initialize(0);
+    }
+
+    @Override
+    public void add(Edge<IntWritable, FloatWritable> edge) {
+        add(edge.getTargetVertexId().get(), edge.getValue().get());
+    }
+
+    public void add(int target, float weight) {
+        if (size == targets.length) {
+            int cap = Math.max(4, size + (size >> 1));
+            targets = java.util.Arrays.copyOf(targets, cap);
+            weights = java.util.Arrays.copyOf(weights, cap);
+        }
+        targets[size] = target;
+        weights[size] = weight;
+        size++;
+        sorted = false;
+    }
+
+    @Override
+    public void remove(IntWritable targetVertexId) {
+        int t = targetVertexId.get();
+        int w = 0;
+        for (int r = 0; r < size; r++) {
+            if (targets[r] == t) {
+                if (r < cursor) cursor--;
+                continue;
+            }
+            targets[w] = targets[r];
+            weights[w] = weights[r];
+            w++;
+        }
+        size = w;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getCursor() {
+        ensureSorted();
+        return cursor;
+    }
+
+    @Override
+    public void setCursor(int cursor) {
+        this.cursor = cursor;
+    }
+
+    @Override
+    public long targetAt(int i) {
+        ensureSorted();
+        return targets[i];
+    }
+
+    @Override
+    public double weightAt(int i) {
+        ensureSorted();
+        return weights[i];
+    }
+
+    /**
+     * Called by Giraph once the input is loaded. Parallel edges collapse to the lightest one:
+     * the heavier copies could never be picked, and symmetric inputs that already list both
+     * directions produce them for every edge.
+     */
+    @Override
+    public void trim() {
+        dropParallelEdges();
+        ensureSorted();
+        if (targets.length > size) {
+            targets = java.util.Arrays.copyOf(targets, size);
+            weights = java.util.Arrays.copyOf(weights, size);
+        }
+    }
+
+    private void dropParallelEdges() {
+        if (size < 2) return;
+        Arrays.quickSort(0, size, new AbstractIntComparator() {
+            @Override
+            public int compare(int a, int b) {
+                int c = Integer.compare(targets[a], targets[b]);
+                return c != 0 ? c : Float.compare(weights[a], weights[b]);
+            }
+        }, swapper);
+        int w = 1;
+        for (int r = 1; r < size; r++) {
+            if (targets[r] == targets[w - 1]) continue;
+            targets[w] = targets[r];
+            weights[w] = weights[r];
+            w++;
+        }
+        size = w;
+        sorted = false;
+    }
+
+    private void ensureSorted() {
+        if (sorted) return;
+        Arrays.quickSort(0, size, new AbstractIntComparator() {
+            @Override
+            public int compare(int a, int b) {
+                int c = Float.compare(weights[a], weights[b]);
+                return c != 0 ? c : Integer.compare(targets[a], targets[b]);
+            }
+        }, swapper);
+        cursor = 0;
+        sorted = true;
+    }
+
+    @Override
+    public Iterator<Edge<IntWritable, FloatWritable>> iterator() {
+        ensureSorted();
+        return new Iterator<Edge<IntWritable, FloatWritable>>() {
+            private final ReusableEdge<IntWritable, FloatWritable> edge =
+                    EdgeFactory.createReusable(new IntWritable(), new FloatWritable());
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < size;
+            }
+
+            @Override
+            public Edge<IntWritable, FloatWritable> next() {
+                if (i >= size) throw new NoSuchElementException();
+                edge.getTargetVertexId().set(targets[i]);
+                edge.getValue().set(weights[i]);
+                i++;
+                return edge;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        ensureSorted();
+        out.writeInt(size);
+        out.writeInt(cursor);
+        for (int i = 0; i < size; i++) {
+            out.writeInt(targets[i]);
+            out.writeFloat(weights[i]);
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        int n = in.readInt();
+        int c = in.readInt();
+        initialize(n);
+        for (int i = 0; i < n; i++) {
+            targets[i] = in.readInt();
+            weights[i] = in.readFloat();
+        }
+        size = n;
+        cursor = c;
+    }
+}
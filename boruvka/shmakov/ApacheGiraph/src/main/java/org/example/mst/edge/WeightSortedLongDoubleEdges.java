@@ -0,0 +1,231 @@
+package org.example.mst.edge;
+
+import it.unimi.dsi.fastutil.Arrays;
+import it.unimi.dsi.fastutil.Swapper;
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.edge.EdgeFactory;
+import org.apache.giraph.edge.ReusableEdge;
+import org.apache.giraph.edge.ReuseObjectsOutEdges;
+import org.apache.giraph.utils.Trimmable;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Primitive edge storage kept sorted by (weight, target id). For a fixed source vertex that is
+ * exactly the Boruvka (weight, min endpoint, max endpoint) order, so the first edge leading to a
+ * foreign component is the vertex's lightest candidate.
+ * <p>
+ * Components only merge, so an edge that once led inside the vertex's own component never becomes
+ * a candidate again. {@link #getCursor()} marks the end of that permanently-internal prefix;
+ * {@link org.example.mst.BoruvkaComputation} advances it and never looks behind it again.
+ * Adding edges invalidates the order; it is restored lazily and the cursor is reset.
+ */
+public class WeightSortedLongDoubleEdges implements ReuseObjectsOutEdges<LongWritable, DoubleWritable>, Trimmable,
+        WeightSortedEdges {
+    private static final long[] NO_TARGETS = new long[0];
+    private static final double[] NO_WEIGHTS = new double[0];
+
+    private long[] targets = NO_TARGETS;
+    private double[] weights = NO_WEIGHTS;
+    private int size;
+    private int cursor;
+    private boolean sorted = true;
+
+    /** Moves targets and weights together for both sort orders. */
+    private final Swapper swapper = new Swapper() {
+        @Override
+        public void swap(int a, int b) {
+            long t = targets[a]; targets[a] = targets[b]; targets[b] = t;
+            double w = weights[a]; weights[a] = weights[b]; weights[b] = w;
+        }
+    };
+
+    @Override
+    public void initialize(Iterable<Edge<LongWritable, DoubleWritable>> edges) {
+        initialize();
+        for (Edge<LongWritable, DoubleWritable> e : edges) add(e);
+    }
+
+    @Override
+    public void initialize(int capacity) {
+        targets = capacity == 0 ? NO_TARGETS : new long[capacity];
+        weights = capacity == 0 ? NO_WEIGHTS : new double[capacity];
+        size = 0;
+        cursor = 0;
+        sorted = true;
+    }
+
+    @Override
+    public void initialize() {
+        initialize(0);
+    }
+
+    @Override
+    public void add(Edge<LongWritable, DoubleWritable> edge) {
+        add(edge.getTargetVertexId().get(), edge.getValue().get());
+    }
+
+    public void add(long target, double weight) {
+        if (size == targets.length) {
+            int cap = Math.max(4, size + (size >> 1));
+            targets = java.util.Arrays.copyOf(targets, cap);
+            weights = java.util.Arrays.copyOf(weights, cap);
+        }
+        targets[size] = target;
+        weights[size] = weight;
+        size++;
+        sorted = false;
+    }
+
+    @Override
+    public void remove(LongWritable targetVertexId) {
+        long t = targetVertexId.get();
+        int w = 0;
+        for (int r = 0; r < size; r++) {
+            if (targets[r] == t) {
+                if (r < cursor) cursor--;
+                continue;
+            }
+            targets[w] = targets[r];
+            weights[w] = weights[r];
+            w++;
+        }
+        size = w;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getCursor() {
+        ensureSorted();
+        return cursor;
+    }
+
+    @Override
+    public void setCursor(int cursor) {
+        this.cursor = cursor;
+    }
+
+    @Override
+    public long targetAt(int i) {
+        ensureSorted();
+        return targets[i];
+    }
+
+    @Override
+    public double weightAt(int i) {
+        ensureSorted();
+        return weights[i];
+    }
+
+    /**
+     * Called by Giraph once the input is loaded. Parallel edges collapse to the lightest one:
+     * the heavier copies could never be picked, and symmetric inputs that already list both
+     * directions produce them for every edge.
+     */
+    @Override
+    public void trim() {
+        dropParallelEdges();
+        ensureSorted();
+        if (targets.length > size) {
+            targets = java.util.Arrays.copyOf(targets, size);
+            weights = java.util.Arrays.copyOf(weights, size);
+        }
+    }
+
+    private void dropParallelEdges() {
+        if (size < 2) return;
+        Arrays.quickSort(0, size, new AbstractIntComparator() {
+            @Override
+            public int compare(int a, int b) {
+                int c = Long.compare(targets[a], targets[b]);
+                return c != 0 ? c : Double.compare(weights[a], weights[b]);
+            }
+        }, swapper);
+        int w = 1;
+        for (int r = 1; r < size; r++) {
+            if (targets[r] == targets[w - 1]) continue;
+            targets[w] = targets[r];
+            weights[w] = weights[r];
+            w++;
+        }
+        size = w;
+        sorted = false;
+    }
+
+    private void ensureSorted() {
+        if (sorted) return;
+        Arrays.quickSort(0, size, new AbstractIntComparator() {
+            @Override
+            public int compare(int a, int b) {
+                int c = Double.compare(weights[a], weights[b]);
+                return c != 0 ? c : Long.compare(targets[a], targets[b]);
+            }
+        }, swapper);
+        cursor = 0;
+        sorted = true;
+    }
+
+    @Override
+    public Iterator<Edge<LongWritable, DoubleWritable>> iterator() {
+        ensureSorted();
+        return new Iterator<Edge<LongWritable, DoubleWritable>>() {
+            private final ReusableEdge<LongWritable, DoubleWritable> edge =
+                    EdgeFactory.createReusable(new LongWritable(), new DoubleWritable());
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < size;
+            }
+
+            @Override
+            public Edge<LongWritable, DoubleWritable> next() {
+                if (i >= size) throw new NoSuchElementException();
+                edge.getTargetVertexId().set(targets[i]);
+                edge.getValue().set(weights[i]);
+                i++;
+                return edge;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        ensureSorted();
+        out.writeInt(size);
+        out.writeInt(cursor);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(targets[i]);
+            out.writeDouble(weights[i]);
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        int n = in.readInt();
+        int c = in.readInt();
+        initialize(n);
+        for (int i = 0; i < n; i++) {
+            targets[i] = in.readLong();
+            weights[i] = in.readDouble();
+        }
+        size = n;
+        cursor = c;
+    }
+}
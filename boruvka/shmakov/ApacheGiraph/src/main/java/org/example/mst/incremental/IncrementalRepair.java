@@ -0,0 +1,422 @@
+package org.example.mst.incremental;
+
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.example.mst.input.BinaryEdgeWriter;
+import org.example.mst.input.EdgeFileReader;
+import org.example.mst.messages.MSTMessage;
+import org.example.mst.metrics.ComponentForest;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Plans the Boruvka job that updates a previous minimum spanning forest for a batch of edge
+ * updates. Edges are compared in the {@link MSTMessage#lighter} order throughout.
+ * <p>
+ * Paths are taken in a reference forest: the old forest plus, as bridges, the set edges that
+ * join two of its trees (or reach a vertex new to the graph). A forest edge is dropped when the
+ * batch deletes or reweights it, or when a non-bridge set edge {u, v} is lighter than it and it
+ * lies on the reference path between u and v. Every edge that survives is still in the new
+ * forest: a cycle of the updated graph on which it is the heaviest edge is a sum of reference
+ * cycles of its non-reference edges, so one of them has it on its path and is lighter. That is
+ * either an old non-forest edge (impossible, the old forest was minimal and those edges only got
+ * heavier or went away) or a set edge (which dropped it).
+ * <p>
+ * The surviving pieces are contracted: only edges of the updated graph between two different
+ * pieces go into the job, and each piece enters the job as a ready-made component through a
+ * {@link SeedForest}. Components the batch leaves alone are one piece each and have no such
+ * edges, so they never reach the job; the seed file lists them as finished components.
+ * <p>
+ * The job input and the seed file are temp files; {@link #close} deletes them once the job is done.
+ */
+public final class IncrementalRepair implements Closeable {
+    /** Written next to the job's part files in the output directory. */
+    public static final String KEPT_PART = "part-kept";
+
+    private final String jobInput;
+    private final String seedFile;
+    private final long jobEdges;
+    private final long forestEdges;
+    private final long droppedEdges;
+    private final long pieces;
+    private final long jobPieces;
+    private final double baseWeight;
+
+    /** The forest edges that survive, for the output directory. */
+    private final long[] keptA;
+    private final long[] keptB;
+    private final double[] keptW;
+
+    private IncrementalRepair(String jobInput, String seedFile, long jobEdges, long forestEdges, long droppedEdges,
+                              long pieces, long jobPieces, double baseWeight,
+                              long[] keptA, long[] keptB, double[] keptW) {
+        this.jobInput = jobInput;
+        this.seedFile = seedFile;
+        this.jobEdges = jobEdges;
+        this.forestEdges = forestEdges;
+        this.droppedEdges = droppedEdges;
+        this.pieces = pieces;
+        this.jobPieces = jobPieces;
+        this.baseWeight = baseWeight;
+        this.keptA = keptA;
+        this.keptB = keptB;
+        this.keptW = keptW;
+    }
+
+    /** {@code .bedges} file with the directed edges the job has to look at. */
+    public String jobInput() {
+        return jobInput;
+    }
+
+    public String seedFile() {
+        return seedFile;
+    }
+
+    public long jobEdges() {
+        return jobEdges;
+    }
+
+    public double baseWeight() {
+        return baseWeight;
+    }
+
+    public String summary() {
+        return String.format("%d of %d forest edges dropped, %d of %d forest pieces enter the job with %d directed edges",
+                droppedEdges, forestEdges, jobPieces, pieces, jobEdges);
+    }
+
+    /**
+     * @param input       the graph the previous forest was computed on
+     * @param previousMst a part file of a previous {@code --output} run, or the directory holding them
+     * @param tmpDir      where the job input and the seed file are written, null for the default temp directory
+     * @param updatedGraph if not null, the whole updated graph is written there as {@code .bedges}, the
+     *                    {@code --input} that goes with this run's output as the next previous MST
+     */
+    public static IncrementalRepair plan(String input, String previousMst, UpdateBatch batch, File tmpDir,
+                                         String updatedGraph) throws IOException {
+        Forest forest = Forest.read(previousMst);
+        int m = forest.edgeCount();
+        for (UpdateBatch.Update up : batch.updates()) {
+            if (up.isDelete()) continue;
+            forest.intern(up.a);
+            forest.intern(up.b);
+        }
+        int n = forest.vertexCount();
+
+        UnionFind trees = new UnionFind(n);
+        for (int e = 0; e < m; e++) trees.union(forest.edgeA.getInt(e), forest.edgeB.getInt(e));
+        Set<UpdateBatch.Update> bridges = new HashSet<>();
+        for (UpdateBatch.Update up : batch.updates()) {
+            if (up.isDelete()) continue;
+            int a = forest.index(up.a), b = forest.index(up.b);
+            if (trees.find(a) == trees.find(b)) continue;
+            trees.union(a, b);
+            forest.addEdge(a, b, up.w);
+            bridges.add(up);
+        }
+        forest.root();
+
+        // only the first m edges are old forest edges, the bridges are never kept
+        boolean[] dropped = new boolean[m];
+        for (UpdateBatch.Update up : batch.updates()) {
+            int a = forest.index(up.a), b = forest.index(up.b);
+            if (a < 0 || b < 0) continue;
+            int e = forest.edgeBetween(a, b);
+            if (e >= 0 && e < m) dropped[e] = true;
+            if (!up.isDelete() && !bridges.contains(up)) forest.dropHeavierOnPath(a, b, up.w, up.a, up.b, dropped);
+        }
+
+        UnionFind pieces = new UnionFind(n);
+        double baseWeight = 0.0;
+        long droppedEdges = 0;
+        int kept = 0;
+        long[] keptA = new long[m];
+        long[] keptB = new long[m];
+        double[] keptW = new double[m];
+        for (int e = 0; e < m; e++) {
+            if (dropped[e]) {
+                droppedEdges++;
+                continue;
+            }
+            pieces.union(forest.edgeA.getInt(e), forest.edgeB.getInt(e));
+            keptA[kept] = forest.ids[forest.edgeA.getInt(e)];
+            keptB[kept] = forest.ids[forest.edgeB.getInt(e)];
+            keptW[kept++] = forest.edgeW.getDouble(e);
+            baseWeight += forest.edgeW.getDouble(e);
+        }
+
+        // edges between different pieces of the updated graph; piece key is the union-find
+        // root's id for forest vertices and the id itself for vertices new to the graph
+        File jobFile = File.createTempFile("boruvka-incremental-", ".bedges", tmpDir);
+        jobFile.deleteOnExit();
+        LongOpenHashSet present = new LongOpenHashSet();
+        long jobEdges;
+        try (BinaryEdgeWriter out = new BinaryEdgeWriter(jobFile);
+             BinaryEdgeWriter graph = updatedGraph == null ? null : new BinaryEdgeWriter(updatedGraph)) {
+            batch.readUpdatedGraph(input, (u, v, w) -> {
+                if (graph != null) graph.write(u, v, w);
+                if (pieceOf(forest, pieces, u) == pieceOf(forest, pieces, v)) return;
+                out.write(u, v, w);
+                present.add(u);
+                present.add(v);
+            });
+            jobEdges = out.edges();
+        }
+
+        // each piece's root is its smallest vertex that the job actually loads
+        int[] pieceRoot = new int[n];
+        Arrays.fill(pieceRoot, -1);
+        long[] pieceSize = new long[n];
+        double[] pieceWeight = new double[n];
+        for (int v = 0; v < n; v++) {
+            int p = pieces.find(v);
+            pieceSize[p]++;
+            if (present.contains(forest.ids[v]) && (pieceRoot[p] < 0 || forest.ids[v] < forest.ids[pieceRoot[p]])) {
+                pieceRoot[p] = v;
+            }
+        }
+        for (int e = 0; e < m; e++) {
+            if (!dropped[e]) pieceWeight[pieces.find(forest.edgeA.getInt(e))] += forest.edgeW.getDouble(e);
+        }
+
+        long pieceCount = 0, jobPieces = 0;
+        int seeds = 0;
+        long[] seedIds = new long[n];
+        long[] seedRoots = new long[n];
+        long[] seedSizes = new long[n];
+        double[] seedWeights = new double[n];
+        ComponentForest untouched = new ComponentForest();
+        for (int v : forest.byId()) {
+            int p = pieces.find(v);
+            if (p == v) {
+                pieceCount++;
+                if (pieceRoot[p] >= 0) jobPieces++;
+                // a single vertex outside the job has no edges left, the updated graph does not have it
+                else if (pieceSize[p] > 1) untouched.add(forest.ids[v], pieceSize[p], pieceWeight[p]);
+            }
+            if (pieceRoot[p] < 0 || !present.contains(forest.ids[v])) continue;
+            boolean root = pieceRoot[p] == v;
+            seedIds[seeds] = forest.ids[v];
+            seedRoots[seeds] = forest.ids[pieceRoot[p]];
+            seedSizes[seeds] = root ? pieceSize[p] : 0;
+            seedWeights[seeds++] = root ? pieceWeight[p] : 0.0;
+        }
+        File seedFile = File.createTempFile("boruvka-seeds-", ".bin", tmpDir);
+        seedFile.deleteOnExit();
+        SeedForest.write(seedFile.getAbsolutePath(), seedIds, seedRoots, seedSizes, seedWeights, seeds, baseWeight, untouched);
+
+        return new IncrementalRepair(jobFile.getAbsolutePath(), seedFile.getAbsolutePath(), jobEdges, m, droppedEdges,
+                pieceCount, jobPieces, baseWeight,
+                Arrays.copyOf(keptA, kept), Arrays.copyOf(keptB, kept), Arrays.copyOf(keptW, kept));
+    }
+
+    /** Deletes the job input and the seed file; the kept edges stay available for the output. */
+    @Override
+    public void close() {
+        SeedForest.evict(seedFile);
+        new File(jobInput).delete();
+        new File(seedFile).delete();
+    }
+
+    private static long pieceOf(Forest forest, UnionFind pieces, long id) {
+        int v = forest.index(id);
+        return v < 0 ? id : forest.ids[pieces.find(v)];
+    }
+
+    /** Adds the surviving forest edges to {@code outputDir} as one more part file. */
+    public void writeKeptEdges(String outputDir, boolean binary) throws IOException {
+        File dir = new File(outputDir);
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        if (binary) {
+            try (BinaryEdgeWriter out = new BinaryEdgeWriter(new File(dir, KEPT_PART + ".bedges"))) {
+                for (int i = 0; i < keptA.length; i++) out.write(keptA[i], keptB[i], keptW[i]);
+            }
+        } else {
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(new File(dir, KEPT_PART + ".txt")), StandardCharsets.US_ASCII), 1 << 16)) {
+                for (int i = 0; i < keptA.length; i++) {
+                    out.write(keptA[i] + " " + keptB[i] + " " + keptW[i] + "\n");
+                }
+            }
+        }
+    }
+
+    /** A previous forest, plus any bridges, rooted so that tree paths can be walked. */
+    private static final class Forest {
+        private final LongArrayList idList = new LongArrayList();
+        private final Long2IntOpenHashMap index = new Long2IntOpenHashMap();
+        final IntArrayList edgeA = new IntArrayList();
+        final IntArrayList edgeB = new IntArrayList();
+        final DoubleArrayList edgeW = new DoubleArrayList();
+        /** Set by {@link #root}. Per vertex: parent vertex, the edge leading to it, depth; roots have parent -1. */
+        long[] ids;
+        int[] parent;
+        int[] parentEdge;
+        int[] depth;
+
+        Forest() {
+            index.defaultReturnValue(-1);
+        }
+
+        int vertexCount() {
+            return idList.size();
+        }
+
+        int edgeCount() {
+            return edgeW.size();
+        }
+
+        int index(long id) {
+            return index.get(id);
+        }
+
+        int intern(long id) {
+            int i = index.get(id);
+            if (i >= 0) return i;
+            index.put(id, idList.size());
+            idList.add(id);
+            return idList.size() - 1;
+        }
+
+        void addEdge(int a, int b, double w) {
+            edgeA.add(a);
+            edgeB.add(b);
+            edgeW.add(w);
+        }
+
+        int edgeBetween(int a, int b) {
+            if (parent[a] == b) return parentEdge[a];
+            if (parent[b] == a) return parentEdge[b];
+            return -1;
+        }
+
+        /**
+         * Marks the edges on the a-b path that (w, lo, hi) is lighter than; edges past the end of
+         * {@code dropped} are bridges and stay unmarked.
+         */
+        void dropHeavierOnPath(int a, int b, double w, long lo, long hi, boolean[] dropped) {
+            int x = a, y = b;
+            while (x != y) {
+                if (depth[x] < depth[y]) {
+                    int t = x; x = y; y = t;
+                }
+                int e = parentEdge[x];
+                if (e < dropped.length) {
+                    long ea = Math.min(ids[edgeA.getInt(e)], ids[edgeB.getInt(e)]);
+                    long eb = Math.max(ids[edgeA.getInt(e)], ids[edgeB.getInt(e)]);
+                    if (MSTMessage.lighter(w, lo, hi, edgeW.getDouble(e), ea, eb)) dropped[e] = true;
+                }
+                x = parent[x];
+            }
+        }
+
+        /** Vertex indices ordered by id. */
+        int[] byId() {
+            long[] sorted = ids.clone();
+            Arrays.sort(sorted);
+            int[] order = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) order[i] = index(sorted[i]);
+            return order;
+        }
+
+        static Forest read(String previousMst) throws IOException {
+            Forest f = new Forest();
+            for (File part : partFiles(previousMst)) {
+                EdgeFileReader.read(part.getPath(), (u, v, w) -> f.addEdge(f.intern(u), f.intern(v), w));
+            }
+            return f;
+        }
+
+        /** BFS from every not yet visited vertex over all edges. */
+        void root() throws IOException {
+            ids = idList.toLongArray();
+            int n = ids.length;
+            int m = edgeCount();
+            int[] offsets = new int[n + 1];
+            for (int e = 0; e < m; e++) {
+                offsets[edgeA.getInt(e) + 1]++;
+                offsets[edgeB.getInt(e) + 1]++;
+            }
+            for (int v = 0; v < n; v++) offsets[v + 1] += offsets[v];
+            int[] incident = new int[2 * m];
+            int[] fill = Arrays.copyOf(offsets, n);
+            for (int e = 0; e < m; e++) {
+                incident[fill[edgeA.getInt(e)]++] = e;
+                incident[fill[edgeB.getInt(e)]++] = e;
+            }
+
+            parent = new int[n];
+            parentEdge = new int[n];
+            depth = new int[n];
+            boolean[] seen = new boolean[n];
+            int[] queue = new int[n];
+            for (int start = 0; start < n; start++) {
+                if (seen[start]) continue;
+                seen[start] = true;
+                parent[start] = -1;
+                parentEdge[start] = -1;
+                int head = 0, tail = 0;
+                queue[tail++] = start;
+                while (head < tail) {
+                    int v = queue[head++];
+                    for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                        int e = incident[k];
+                        if (e == parentEdge[v]) continue;
+                        int u = edgeA.getInt(e) == v ? edgeB.getInt(e) : edgeA.getInt(e);
+                        if (seen[u]) throw new IOException("Previous MST has a cycle through edge " + ids[edgeA.getInt(e)] + " " + ids[edgeB.getInt(e)]);
+                        seen[u] = true;
+                        parent[u] = v;
+                        parentEdge[u] = e;
+                        depth[u] = depth[v] + 1;
+                        queue[tail++] = u;
+                    }
+                }
+            }
+        }
+
+        /** A single part file, or every {@code part-*.txt} / {@code part-*.bedges} in a directory. */
+        private static File[] partFiles(String previousMst) throws IOException {
+            File f = new File(previousMst);
+            if (f.isFile()) return new File[]{f};
+            File[] parts = f.listFiles((dir, name) -> name.startsWith("part-") && (name.endsWith(".txt") || name.endsWith(".bedges")));
+            if (parts == null || parts.length == 0) throw new IOException("No MST part files in " + previousMst);
+            Arrays.sort(parts);
+            return parts;
+        }
+    }
+
+    private static final class UnionFind {
+        private final int[] parent;
+
+        UnionFind(int n) {
+            parent = new int[n];
+            for (int i = 0; i < n; i++) parent[i] = i;
+        }
+
+        int find(int x) {
+            while (parent[x] != x) {
+                parent[x] = parent[parent[x]];
+                x = parent[x];
+            }
+            return x;
+        }
+
+        void union(int a, int b) {
+            int ra = find(a), rb = find(b);
+            if (ra != rb) parent[Math.max(ra, rb)] = Math.min(ra, rb);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.mst.incremental;
+
+import org.apache.giraph.conf.StrConfOption;
+import org.example.mst.metrics.ComponentForest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The pieces of a previous spanning forest that an incremental run keeps, as the starting
+ * components of the Boruvka job: every listed vertex begins with its piece root as parent instead
+ * of itself, and each root starts with its piece's vertex count and forest weight. The header also
+ * carries the weight of all kept edges, so the job's MST_WEIGHT covers the whole forest, and the
+ * pieces that do not enter the job at all are appended as finished components, so that the
+ * job's forest summary covers them too.
+ * File layout: magic, count, base weight, then (id, root, size, weight) by ascending id,
+ * big-endian, then the {@link ComponentForest} of the untouched pieces; size and weight are only
+ * set on roots.
+ */
+public final class SeedForest {
+    public static final StrConfOption SEED_FILE = new StrConfOption("boruvka.incremental.seedFile", null,
+            "Starting components written by IncrementalRepair; every vertex starts alone when unset");
+
+    private static final int MAGIC = 0x53454544; // "SEED"
+    private static final Map<String, SeedForest> LOADED = new ConcurrentHashMap<>();
+
+    private final long[] ids;
+    private final long[] roots;
+    private final long[] sizes;
+    private final double[] weights;
+    private final double baseWeight;
+    private final ComponentForest untouched;
+
+    private SeedForest(long[] ids, long[] roots, long[] sizes, double[] weights, double baseWeight,
+                       ComponentForest untouched) {
+        this.ids = ids;
+        this.roots = roots;
+        this.sizes = sizes;
+        this.weights = weights;
+        this.baseWeight = baseWeight;
+        this.untouched = untouched;
+    }
+
+    /** Root of {@code id}'s piece, {@code id} itself if it starts alone. */
+    public long root(long id) {
+        int i = Arrays.binarySearch(ids, id);
+        return i >= 0 ? roots[i] : id;
+    }
+
+    /** Vertices of the piece rooted at {@code id}; 1 for unlisted vertices, 0 for non-roots. */
+    public long size(long id) {
+        int i = Arrays.binarySearch(ids, id);
+        return i >= 0 ? sizes[i] : 1;
+    }
+
+    public double weight(long id) {
+        int i = Arrays.binarySearch(ids, id);
+        return i >= 0 ? weights[i] : 0.0;
+    }
+
+    /** Weight of every kept edge, inside the job or not. */
+    public double baseWeight() {
+        return baseWeight;
+    }
+
+    /** The pieces that are components of the updated forest as they are and stay out of the job. */
+    public ComponentForest untouched() {
+        return untouched;
+    }
+
+    /** {@code ids} ascending; the arrays are written as they are. */
+    public static void write(String file, long[] ids, long[] roots, long[] sizes, double[] weights, int count,
+                             double baseWeight, ComponentForest untouched) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(count);
+            out.writeDouble(baseWeight);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(ids[i]);
+                out.writeLong(roots[i]);
+                out.writeLong(sizes[i]);
+                out.writeDouble(weights[i]);
+            }
+            untouched.write(out);
+        }
+    }
+
+    /** Loads {@code file} once per JVM; the master and every compute thread share it. */
+    public static SeedForest load(String file) {
+        return LOADED.computeIfAbsent(file, f -> {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), 1 << 16))) {
+                if (in.readInt() != MAGIC) throw new IOException(f + " is not a seed forest file");
+                int n = in.readInt();
+                double baseWeight = in.readDouble();
+                long[] ids = new long[n];
+                long[] roots = new long[n];
+                long[] sizes = new long[n];
+                double[] weights = new double[n];
+                for (int i = 0; i < n; i++) {
+                    ids[i] = in.readLong();
+                    roots[i] = in.readLong();
+                    sizes[i] = in.readLong();
+                    weights[i] = in.readDouble();
+                }
+                ComponentForest untouched = new ComponentForest();
+                untouched.readFields(in);
+                return new SeedForest(ids, roots, sizes, weights, baseWeight, untouched);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read seed forest " + f, e);
+            }
+        });
+    }
+
+    /** Drops the cached copy of {@code file}, e.g. before it is rewritten for the next batch. */
+    public static void evict(String file) {
+        LOADED.remove(file);
+    }
+}
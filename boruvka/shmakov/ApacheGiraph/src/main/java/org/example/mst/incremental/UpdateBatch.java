@@ -0,0 +1,145 @@
+package org.example.mst.incremental;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.example.mst.input.EdgeFileReader;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A batch of edge updates, one per line:
+ * <pre>
+ * + u v w    set the weight of edge {u, v} to w, inserting it if it is new
+ * - u v      delete edge {u, v}
+ * </pre>
+ * Lines starting with {@code #} or {@code %} are comments. Updates address undirected edges and
+ * replace every parallel copy; a later line for the same pair overrides an earlier one.
+ */
+public final class UpdateBatch {
+
+    public static final class Update {
+        public final long a;
+        public final long b;
+        /** New weight, or NaN for a deletion. */
+        public final double w;
+
+        Update(long u, long v, double w) {
+            this.a = Math.min(u, v);
+            this.b = Math.max(u, v);
+            this.w = w;
+        }
+
+        public boolean isDelete() {
+            return Double.isNaN(w);
+        }
+    }
+
+    private final Map<Pair, Update> updates = new HashMap<>();
+    /** Endpoints of all updates, so that most edges are passed over without a map lookup. */
+    private final LongOpenHashSet endpoints = new LongOpenHashSet();
+    private final Pair probe = new Pair();
+
+    public static UpdateBatch read(String file) throws IOException {
+        UpdateBatch batch = new UpdateBatch();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNo = 0;
+            while ((line = br.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || line.startsWith("%")) continue;
+                String[] toks = line.split("\\s+");
+                try {
+                    if (toks[0].equals("+") && toks.length == 4) {
+                        batch.set(Long.parseLong(toks[1]), Long.parseLong(toks[2]), Double.parseDouble(toks[3]));
+                    } else if (toks[0].equals("-") && toks.length == 3) {
+                        batch.delete(Long.parseLong(toks[1]), Long.parseLong(toks[2]));
+                    } else {
+                        throw new IOException(file + ":" + lineNo + ": expected '+ u v w' or '- u v', got: " + line);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IOException(file + ":" + lineNo + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return batch;
+    }
+
+    public void set(long u, long v, double w) {
+        if (Double.isNaN(w)) throw new IllegalArgumentException("NaN weight for edge " + u + " " + v);
+        put(new Update(u, v, w));
+    }
+
+    public void delete(long u, long v) {
+        put(new Update(u, v, Double.NaN));
+    }
+
+    private void put(Update update) {
+        if (update.a == update.b) return;
+        updates.put(new Pair(update.a, update.b), update);
+        endpoints.add(update.a);
+        endpoints.add(update.b);
+    }
+
+    public int size() {
+        return updates.size();
+    }
+
+    public Iterable<Update> updates() {
+        return updates.values();
+    }
+
+    /** The update for edge {u, v}, or null if the batch leaves it alone. Not thread-safe. */
+    public Update get(long u, long v) {
+        if (!endpoints.contains(u) || !endpoints.contains(v)) return null;
+        probe.a = Math.min(u, v);
+        probe.b = Math.max(u, v);
+        return updates.get(probe);
+    }
+
+    /**
+     * Streams the graph as it is after the batch: the records of {@code input} whose edge the
+     * batch does not touch, then both directions of every set edge. Directed formats hand each
+     * record over as is, symmetric ones hand over both directions.
+     */
+    public void readUpdatedGraph(String input, EdgeFileReader.Sink sink) throws IOException {
+        boolean symmetric = EdgeFileReader.isSymmetric(input);
+        EdgeFileReader.read(input, (u, v, w) -> {
+            if (u == v || get(u, v) != null) return;
+            sink.edge(u, v, w);
+            if (symmetric) sink.edge(v, u, w);
+        });
+        for (Update up : updates.values()) {
+            if (up.isDelete()) continue;
+            sink.edge(up.a, up.b, up.w);
+            sink.edge(up.b, up.a, up.w);
+        }
+    }
+
+    private static final class Pair {
+        long a;
+        long b;
+
+        Pair() {}
+
+        Pair(long a, long b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Pair && ((Pair) o).a == a && ((Pair) o).b == b;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(a * 0x9E3779B97F4A7C15L + b);
+        }
+    }
+}
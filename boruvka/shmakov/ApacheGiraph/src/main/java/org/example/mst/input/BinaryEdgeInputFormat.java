@@ -0,0 +1,168 @@
+package org.example.mst.input;
+
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.edge.EdgeFactory;
+import org.apache.giraph.edge.ReusableEdge;
+import org.apache.giraph.io.EdgeInputFormat;
+import org.apache.giraph.io.EdgeReader;
+import org.apache.giraph.io.formats.GiraphFileInputFormat;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-width binary edge list written by {@link org.example.mst.tools.EdgeListToBinary}:
+ * a 16-byte header (magic, version, edge count) followed by (long src, long dst, double weight)
+ * records, big-endian. Splits are cut on record boundaries; local files are read through
+ * memory-mapped windows, anything else through a buffered stream.
+ */
+public class BinaryEdgeInputFormat extends EdgeInputFormat<LongWritable, DoubleWritable> {
+    public static final int MAGIC = 0x42454447; // "BEDG"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 16;
+    public static final int RECORD_BYTES = 24;
+
+    /** Largest mapped window, a whole number of records below 1 GiB. */
+    private static final long MAX_WINDOW = (1L << 30) / RECORD_BYTES * RECORD_BYTES;
+
+    @Override
+    public void checkInputSpecs(Configuration conf) {
+    }
+
+    @Override
+    public List<InputSplit> getSplits(JobContext context, int minSplitCountHint) throws IOException {
+        Configuration conf = context.getConfiguration();
+        Path[] paths = GiraphFileInputFormat.getEdgeInputPaths(context);
+        int perFile = Math.max(1, minSplitCountHint / Math.max(1, paths.length));
+
+        List<InputSplit> splits = new ArrayList<>();
+        for (Path path : paths) {
+            FileSystem fs = path.getFileSystem(conf);
+            long edges = readEdgeCount(fs, path);
+            long perSplit = Math.max(1, (edges + perFile - 1) / perFile);
+            for (long first = 0; first < edges; first += perSplit) {
+                long count = Math.min(perSplit, edges - first);
+                splits.add(new FileSplit(path, HEADER_BYTES + first * RECORD_BYTES, count * RECORD_BYTES, new String[0]));
+            }
+        }
+        return splits;
+    }
+
+    private static long readEdgeCount(FileSystem fs, Path path) throws IOException {
+        try (FSDataInputStream in = fs.open(path)) {
+            int magic = in.readInt();
+            int version = in.readInt();
+            if (magic != MAGIC) throw new IOException(path + " is not a binary edge file");
+            if (version != VERSION) throw new IOException(path + ": unsupported binary edge format version " + version);
+            return in.readLong();
+        }
+    }
+
+    @Override
+    public EdgeReader<LongWritable, DoubleWritable> createEdgeReader(InputSplit split, TaskAttemptContext context) {
+        return new BinaryEdgeReader();
+    }
+
+    private static class BinaryEdgeReader extends EdgeReader<LongWritable, DoubleWritable> {
+        private final LongWritable src = new LongWritable();
+        private final ReusableEdge<LongWritable, DoubleWritable> edge =
+                EdgeFactory.createReusable(new LongWritable(), new DoubleWritable());
+
+        private long remaining;
+        private long total;
+
+        private FileChannel channel;
+        private MappedByteBuffer window;
+        private long nextWindowStart;
+        private long end;
+
+        private DataInputStream stream;
+
+        @Override
+        public void initialize(InputSplit inputSplit, TaskAttemptContext context) throws IOException {
+            FileSplit split = (FileSplit) inputSplit;
+            Path path = split.getPath();
+            FileSystem fs = path.getFileSystem(context.getConfiguration());
+            total = split.getLength() / RECORD_BYTES;
+            remaining = total;
+
+            if (fs instanceof LocalFileSystem) {
+                File file = ((LocalFileSystem) fs).pathToFile(path);
+                channel = new RandomAccessFile(file, "r").getChannel();
+                nextWindowStart = split.getStart();
+                end = split.getStart() + split.getLength();
+            } else {
+                FSDataInputStream in = fs.open(path);
+                in.seek(split.getStart());
+                stream = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+            }
+        }
+
+        @Override
+        public boolean nextEdge() throws IOException {
+            if (remaining == 0) return false;
+            remaining--;
+            long u, v;
+            double w;
+            if (channel != null) {
+                if (window == null || !window.hasRemaining()) mapNextWindow();
+                u = window.getLong();
+                v = window.getLong();
+                w = window.getDouble();
+            } else {
+                u = stream.readLong();
+                v = stream.readLong();
+                w = stream.readDouble();
+            }
+            src.set(u);
+            edge.getTargetVertexId().set(v);
+            edge.getValue().set(w);
+            return true;
+        }
+
+        private void mapNextWindow() throws IOException {
+            long size = Math.min(MAX_WINDOW, end - nextWindowStart);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, nextWindowStart, size);
+            nextWindowStart += size;
+        }
+
+        @Override
+        public LongWritable getCurrentSourceId() {
+            return src;
+        }
+
+        @Override
+        public Edge<LongWritable, DoubleWritable> getCurrentEdge() {
+            return edge;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel != null) channel.close();
+            if (stream != null) stream.close();
+        }
+
+        @Override
+        public float getProgress() {
+            return total == 0 ? 1f : (float) (total - remaining) / total;
+        }
+    }
+}
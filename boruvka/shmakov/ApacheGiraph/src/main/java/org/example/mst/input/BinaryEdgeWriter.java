@@ -0,0 +1,56 @@
+package org.example.mst.input;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Writes a local file in the {@link BinaryEdgeInputFormat} layout when the number of edges is
+ * not known up front: the header goes out with a count of 0, and {@link #close} patches in the
+ * number of records written.
+ */
+public final class BinaryEdgeWriter implements Closeable {
+    private final File file;
+    private final DataOutputStream out;
+    private long edges;
+    private boolean closed;
+
+    public BinaryEdgeWriter(String path) throws IOException {
+        this(new File(path));
+    }
+
+    public BinaryEdgeWriter(File file) throws IOException {
+        this.file = file;
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        out.writeInt(BinaryEdgeInputFormat.MAGIC);
+        out.writeInt(BinaryEdgeInputFormat.VERSION);
+        out.writeLong(0L); // patched in close
+    }
+
+    public void write(long src, long dst, double weight) throws IOException {
+        out.writeLong(src);
+        out.writeLong(dst);
+        out.writeDouble(weight);
+        edges++;
+    }
+
+    /** Directed edges written so far. */
+    public long edges() {
+        return edges;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        out.close();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(8);
+            raf.writeLong(edges);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.example.mst.input;
+
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.edge.EdgeFactory;
+import org.apache.giraph.edge.ReusableEdge;
+import org.apache.giraph.io.EdgeInputFormat;
+import org.apache.giraph.io.EdgeReader;
+import org.apache.giraph.io.formats.GiraphFileInputFormat;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.FloatWritable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The id-remapped graph of a compact job, written by {@link org.example.mst.compact.IdRemapping}:
+ * the {@link BinaryEdgeInputFormat} layout with (int src, int dst, float weight) records of
+ * 12 bytes. Splits and reading work the same way.
+ */
+public class CompactBinaryEdgeInputFormat extends EdgeInputFormat<IntWritable, FloatWritable> {
+    public static final int MAGIC = 0x43454447; // "CEDG"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 16;
+    public static final int RECORD_BYTES = 12;
+
+    /** Largest mapped window, a whole number of records below 1 GiB. */
+    private static final long MAX_WINDOW = (1L << 30) / RECORD_BYTES * RECORD_BYTES;
+
+    @Override
+    public void checkInputSpecs(Configuration conf) {
+    }
+
+    @Override
+    public List<InputSplit> getSplits(JobContext context, int minSplitCountHint) throws IOException {
+        Configuration conf = context.getConfiguration();
+        Path[] paths = GiraphFileInputFormat.getEdgeInputPaths(context);
+        int perFile = Math.max(1, minSplitCountHint / Math.max(1, paths.length));
+
+        List<InputSplit> splits = new ArrayList<>();
+        for (Path path : paths) {
+            FileSystem fs = path.getFileSystem(conf);
+            long edges = readEdgeCount(fs, path);
+            long perSplit = Math.max(1, (edges + perFile - 1) / perFile);
+            for (long first = 0; first < edges; first += perSplit) {
+                long count = Math.min(perSplit, edges - first);
+                splits.add(new FileSplit(path, HEADER_BYTES + first * RECORD_BYTES, count * RECORD_BYTES, new String[0]));
+            }
+        }
+        return splits;
+    }
+
+    private static long readEdgeCount(FileSystem fs, Path path) throws IOException {
+        try (FSDataInputStream in = fs.open(path)) {
+            int magic = in.readInt();
+            int version = in.readInt();
+            if (magic != MAGIC) throw new IOException(path + " is not a compact binary edge file");
+            if (version != VERSION) throw new IOException(path + ": unsupported binary edge format version " + version);
+            return in.readLong();
+        }
+    }
+
+    @Override
+    public EdgeReader<IntWritable, FloatWritable> createEdgeReader(InputSplit split, TaskAttemptContext context) {
+        return new CompactEdgeReader();
+    }
+
+    private static class CompactEdgeReader extends EdgeReader<IntWritable, FloatWritable> {
+        private final IntWritable src = new IntWritable();
+        private final ReusableEdge<IntWritable, FloatWritable> edge =
+                EdgeFactory.createReusable(new IntWritable(), new FloatWritable());
+
+        private long remaining;
+        private long total;
+
+        private FileChannel channel;
+        private MappedByteBuffer window;
+        private long nextWindowStart;
+        private long end;
+
+        private DataInputStream stream;
+
+        @Override
+        public void initialize(InputSplit inputSplit, TaskAttemptContext context) throws IOException {
+            FileSplit split = (FileSplit) inputSplit;
+            Path path = split.getPath();
+            FileSystem fs = path.getFileSystem(context.getConfiguration());
+            total = split.getLength() / RECORD_BYTES;
+            remaining = total;
+
+            if (fs instanceof LocalFileSystem) {
+                File file = ((LocalFileSystem) fs).pathToFile(path);
+                channel = new RandomAccessFile(file, "r").getChannel();
+                nextWindowStart = split.getStart();
+                end = split.getStart() + split.getLength();
+            } else {
+                FSDataInputStream in = fs.open(path);
+                in.seek(split.getStart());
+                stream = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+            }
+        }
+
+        @Override
+        public boolean nextEdge() throws IOException {
+            if (remaining == 0) return false;
+            remaining--;
+            int u, v;
+            float w;
+            if (channel != null) {
+                if (window == null || !window.hasRemaining()) mapNextWindow();
+                u = window.getInt();
+                v = window.getInt();
+                w = window.getFloat();
+            } else {
+                u = stream.readInt();
+                v = stream.readInt();
+                w = stream.readFloat();
+            }
+            src.set(u);
+            edge.getTargetVertexId().set(v);
+            edge.getValue().set(w);
+            return true;
+        }
+
+        private void mapNextWindow() throws IOException {
+            long size = Math.min(MAX_WINDOW, end - nextWindowStart);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, nextWindowStart, size);
+            nextWindowStart += size;
+        }
+
+        @Override
+        public IntWritable getCurrentSourceId() {
+            return src;
+        }
+
+        @Override
+        public Edge<IntWritable, FloatWritable> getCurrentEdge() {
+            return edge;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel != null) channel.close();
+            if (stream != null) stream.close();
+        }
+
+        @Override
+        public float getProgress() {
+            return total == 0 ? 1f : (float) (total - remaining) / total;
+        }
+    }
+}
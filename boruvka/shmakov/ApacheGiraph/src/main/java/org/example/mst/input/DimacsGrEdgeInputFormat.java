@@ -0,0 +1,34 @@
+package org.example.mst.input;
+
+import org.apache.giraph.io.EdgeReader;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+import java.io.IOException;
+
+/**
+ * DIMACS shortest-path files ({@code .gr}), read directly: {@code a u v w} arcs are taken as
+ * undirected edges, {@code c} and {@code p} lines are skipped. Road networks list every arc in
+ * both directions, which yields parallel edges; {@link org.example.mst.edge.WeightSortedLongDoubleEdges}
+ * keeps only the lightest of them once the input is loaded.
+ */
+public class DimacsGrEdgeInputFormat extends SymmetricTextEdgeInputFormat {
+
+    @Override
+    public EdgeReader<LongWritable, DoubleWritable> createEdgeReader(InputSplit split, TaskAttemptContext context) throws IOException {
+        return new SymmetricEdgeReader() {
+            @Override
+            protected boolean parse(Text line, LineTokenizer tokens, boolean firstSplit) throws IOException {
+                if (tokens.peek() != 'a') return false;
+                tokens.skipToken();
+                src = tokens.nextLong();
+                dst = tokens.nextLong();
+                weight = tokens.nextDouble();
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.mst.input;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Streams the edges of an input file outside Giraph, by the rules of the Giraph input formats:
+ * {@code .edgelist} and {@code .bedges} records are directed edges, {@code .mtx} and {@code .gr}
+ * entries are undirected and reported once, see {@link #isSymmetric}.
+ */
+public final class EdgeFileReader {
+    private EdgeFileReader() {}
+
+    public interface Sink {
+        void edge(long u, long v, double w) throws IOException;
+    }
+
+    /** True if every record stands for both directions. */
+    public static boolean isSymmetric(String path) {
+        String name = path.toLowerCase(Locale.ROOT);
+        return name.endsWith(".mtx") || name.endsWith(".gr");
+    }
+
+    public static void read(String path, Sink sink) throws IOException {
+        String name = path.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".bedges")) readBinary(path, sink);
+        else readText(path, sink, name.endsWith(".mtx"), name.endsWith(".gr"));
+    }
+
+    private static void readText(String path, Sink sink, boolean mtx, boolean gr) throws IOException {
+        TextLines lines = new TextLines(sink, mtx, gr);
+        byte[] buf = new byte[1 << 20];
+        int len = 0;
+        try (InputStream in = new FileInputStream(path)) {
+            boolean eof = false;
+            while (!eof) {
+                int n = in.read(buf, len, buf.length - len);
+                if (n < 0) eof = true;
+                else len += n;
+
+                int lineStart = 0;
+                while (lineStart < len) {
+                    int lineEnd = lineStart;
+                    while (lineEnd < len && buf[lineEnd] != '\n') lineEnd++;
+                    if (lineEnd == len && !eof) break;
+                    lines.parse(buf, lineStart, lineEnd);
+                    lineStart = lineEnd + 1;
+                }
+                if (lineStart >= len) {
+                    len = 0;
+                } else {
+                    System.arraycopy(buf, lineStart, buf, 0, len - lineStart);
+                    len -= lineStart;
+                    if (len == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+                }
+            }
+        }
+    }
+
+    /** One text line at a time, same rules as the Giraph text input formats. */
+    private static final class TextLines {
+        private final LineTokenizer tokens = new LineTokenizer();
+        private final Sink sink;
+        private final boolean mtx;
+        private final boolean gr;
+        private boolean sizeLineSeen;
+
+        TextLines(Sink sink, boolean mtx, boolean gr) {
+            this.sink = sink;
+            this.mtx = mtx;
+            this.gr = gr;
+        }
+
+        void parse(byte[] buf, int start, int end) throws IOException {
+            tokens.reset(buf, start, end);
+            int first = tokens.peek();
+            if (first == -1) return;
+            if (gr) {
+                if (first != 'a') return;
+                tokens.skipToken();
+                sink.edge(tokens.nextLong(), tokens.nextLong(), tokens.nextDouble());
+            } else if (mtx) {
+                if (first == '%') return;
+                if (!sizeLineSeen) {
+                    sizeLineSeen = true;
+                    return;
+                }
+                long u = tokens.nextLong();
+                long v = tokens.nextLong();
+                sink.edge(u, v, tokens.hasNext() ? tokens.nextDouble() : 1.0);
+            } else {
+                long u = tokens.nextLong();
+                long v = tokens.nextLong();
+                if (!tokens.hasNext()) throw new IOException("Expected: src dst weight");
+                sink.edge(u, v, tokens.nextDouble());
+            }
+        }
+    }
+
+    private static void readBinary(String path, Sink sink) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 1 << 16))) {
+            if (in.readInt() != BinaryEdgeInputFormat.MAGIC) throw new IOException(path + " is not a binary edge file");
+            int version = in.readInt();
+            if (version != BinaryEdgeInputFormat.VERSION) throw new IOException(path + ": unsupported binary edge format version " + version);
+            long count = in.readLong();
+            for (long i = 0; i < count; i++) sink.edge(in.readLong(), in.readLong(), in.readDouble());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.mst.input;
+
+import org.apache.hadoop.io.Text;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Whitespace tokenizer that parses numbers straight out of a {@link Text}'s UTF-8 bytes,
+ * without building a String per line. Doubles that fit the exact fast path
+ * (at most 15 significant digits, no exponent) are computed as mantissa / 10^k, which is
+ * correctly rounded; anything else falls back to {@link Double#parseDouble}.
+ */
+public final class LineTokenizer {
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private byte[] bytes;
+    private int pos;
+    private int lineStart;
+    private int end;
+
+    public LineTokenizer reset(Text line) {
+        return reset(line.getBytes(), 0, line.getLength());
+    }
+
+    /** Tokenizes {@code bytes[start, end)}, typically one line of a larger buffer. */
+    public LineTokenizer reset(byte[] bytes, int start, int end) {
+        this.bytes = bytes;
+        this.pos = start;
+        this.lineStart = start;
+        this.end = end;
+        return this;
+    }
+
+    /** Skips leading whitespace and reports whether another token follows. */
+    public boolean hasNext() {
+        while (pos < end && isSpace(bytes[pos])) pos++;
+        return pos < end;
+    }
+
+    /** First non-blank byte of the line, or -1 if the line is blank; does not consume it. */
+    public int peek() {
+        return hasNext() ? bytes[pos] : -1;
+    }
+
+    public void skipToken() throws IOException {
+        if (!hasNext()) throw error("Missing token");
+        while (pos < end && !isSpace(bytes[pos])) pos++;
+    }
+
+    public long nextLong() throws IOException {
+        if (!hasNext()) throw error("Missing integer");
+        boolean neg = false;
+        if (bytes[pos] == '-' || bytes[pos] == '+') neg = bytes[pos++] == '-';
+        int start = pos;
+        long v = 0;
+        while (pos < end && bytes[pos] >= '0' && bytes[pos] <= '9') {
+            v = v * 10 + (bytes[pos++] - '0');
+        }
+        if (pos == start || (pos < end && !isSpace(bytes[pos])) || pos - start > 18) {
+            return neg ? -slowLong(start) : slowLong(start);
+        }
+        return neg ? -v : v;
+    }
+
+    public double nextDouble() throws IOException {
+        if (!hasNext()) throw error("Missing number");
+        int tokenStart = pos;
+        boolean neg = false;
+        if (bytes[pos] == '-' || bytes[pos] == '+') neg = bytes[pos++] == '-';
+
+        long mantissa = 0;
+        int digits = 0;
+        int fraction = 0;
+        boolean dot = false;
+        boolean anyDigit = false;
+        while (pos < end && !isSpace(bytes[pos])) {
+            byte b = bytes[pos];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                anyDigit = true;
+                if (mantissa != 0) digits++;
+                if (dot) fraction++;
+            } else if (b == '.' && !dot) {
+                dot = true;
+            } else {
+                return slowDouble(tokenStart);
+            }
+            pos++;
+        }
+        if (!anyDigit || digits > 15 || fraction >= POW10.length) return slowDouble(tokenStart);
+        double v = mantissa / POW10[fraction];
+        return neg ? -v : v;
+    }
+
+    private long slowLong(int start) throws IOException {
+        while (pos < end && !isSpace(bytes[pos])) pos++;
+        try {
+            return Long.parseLong(new String(bytes, start, pos - start, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            throw error("Bad integer");
+        }
+    }
+
+    private double slowDouble(int tokenStart) throws IOException {
+        while (pos < end && !isSpace(bytes[pos])) pos++;
+        try {
+            return Double.parseDouble(new String(bytes, tokenStart, pos - tokenStart, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            throw error("Bad number");
+        }
+    }
+
+    private IOException error(String what) {
+        return new IOException(what + " in line: " + new String(bytes, lineStart, end - lineStart, StandardCharsets.UTF_8));
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+}
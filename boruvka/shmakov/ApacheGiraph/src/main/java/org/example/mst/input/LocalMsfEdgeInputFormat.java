@@ -0,0 +1,228 @@
+package org.example.mst.input;
+
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import org.apache.giraph.conf.ClassConfOption;
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.edge.EdgeFactory;
+import org.apache.giraph.edge.ReusableEdge;
+import org.apache.giraph.io.EdgeInputFormat;
+import org.apache.giraph.io.EdgeReader;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.example.mst.messages.MSTMessage;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sparsifying wrapper around another edge input format. Each split is read completely, a
+ * minimum spanning forest of the split's edges is computed with Kruskal, and only the forest
+ * edges are handed to Giraph. By the cycle property an edge outside the forest is the heaviest
+ * on some cycle of the full graph, so it cannot be in the MST. Ties are broken by
+ * {@link MSTMessage#lighter}, the order the Boruvka phases use, so every MST edge survives every
+ * split that contains it.
+ * <p>
+ * Directed copies of one undirected edge (both directions from a symmetric format, or both lines
+ * of an {@code .edgelist}) are kept or dropped together. Copies that land in different splits
+ * may survive on one side only; that is harmless because such an edge is never an MST edge and
+ * each component's lightest outgoing edge is still present from both ends.
+ */
+public class LocalMsfEdgeInputFormat extends EdgeInputFormat<LongWritable, DoubleWritable> {
+
+    @SuppressWarnings("rawtypes")
+    public static final ClassConfOption<EdgeInputFormat> DELEGATE = ClassConfOption.create(
+            "boruvka.localMsf.delegate", LongDoubleTextEdgeInputFormat.class, EdgeInputFormat.class,
+            "Edge input format whose splits the local MSF pre-pass sparsifies");
+
+    private static final AtomicLong EDGES_READ = new AtomicLong();
+    private static final AtomicLong EDGES_KEPT = new AtomicLong();
+
+    private EdgeInputFormat<LongWritable, DoubleWritable> delegate;
+
+    /** Directed edges read by all splits of this JVM since the last {@link #resetStats}. */
+    public static long edgesRead() {
+        return EDGES_READ.get();
+    }
+
+    /** Directed edges handed to Giraph after sparsification. */
+    public static long edgesKept() {
+        return EDGES_KEPT.get();
+    }
+
+    public static void resetStats() {
+        EDGES_READ.set(0);
+        EDGES_KEPT.set(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized EdgeInputFormat<LongWritable, DoubleWritable> delegate() {
+        if (delegate == null) {
+            try {
+                delegate = DELEGATE.get(getConf()).newInstance();
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw new IllegalStateException("Cannot create " + DELEGATE.get(getConf()), e);
+            }
+            delegate.setConf(getConf());
+        }
+        return delegate;
+    }
+
+    @Override
+    public void checkInputSpecs(Configuration conf) {
+        delegate().checkInputSpecs(conf);
+    }
+
+    @Override
+    public List<InputSplit> getSplits(JobContext context, int minSplitCountHint) throws IOException, InterruptedException {
+        return delegate().getSplits(context, minSplitCountHint);
+    }
+
+    @Override
+    public EdgeReader<LongWritable, DoubleWritable> createEdgeReader(InputSplit split, TaskAttemptContext context) throws IOException {
+        return new LocalMsfEdgeReader(delegate().createEdgeReader(split, context));
+    }
+
+    private static class LocalMsfEdgeReader extends EdgeReader<LongWritable, DoubleWritable> {
+        private final EdgeReader<LongWritable, DoubleWritable> in;
+        private final LongWritable sourceId = new LongWritable();
+        private final ReusableEdge<LongWritable, DoubleWritable> edge =
+                EdgeFactory.createReusable(new LongWritable(), new DoubleWritable());
+
+        private long[] src = new long[1024];
+        private long[] dst = new long[1024];
+        private double[] weight = new double[1024];
+        private int size;
+        private boolean[] keep;
+        private int next;
+
+        LocalMsfEdgeReader(EdgeReader<LongWritable, DoubleWritable> in) {
+            this.in = in;
+        }
+
+        @Override
+        public void initialize(InputSplit inputSplit, TaskAttemptContext context) throws IOException, InterruptedException {
+            in.setConf(getConf());
+            in.initialize(inputSplit, context);
+            while (in.nextEdge()) {
+                Edge<LongWritable, DoubleWritable> e = in.getCurrentEdge();
+                add(in.getCurrentSourceId().get(), e.getTargetVertexId().get(), e.getValue().get());
+            }
+            keep = spanningForest();
+            int kept = 0;
+            for (int i = 0; i < size; i++) if (keep[i]) kept++;
+            EDGES_READ.addAndGet(size);
+            EDGES_KEPT.addAndGet(kept);
+        }
+
+        private void add(long u, long v, double w) {
+            if (size == src.length) {
+                src = Arrays.copyOf(src, size * 2);
+                dst = Arrays.copyOf(dst, size * 2);
+                weight = Arrays.copyOf(weight, size * 2);
+            }
+            src[size] = u;
+            dst[size] = v;
+            weight[size] = w;
+            size++;
+        }
+
+        /** Kruskal over the split; copies of the same (weight, endpoints) are decided together. */
+        private boolean[] spanningForest() {
+            long[] ids = new long[2 * size];
+            System.arraycopy(src, 0, ids, 0, size);
+            System.arraycopy(dst, 0, ids, size, size);
+            Arrays.sort(ids);
+            int n = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (i == 0 || ids[i] != ids[i - 1]) ids[n++] = ids[i];
+            }
+            int[] parent = new int[n];
+            for (int v = 0; v < n; v++) parent[v] = v;
+
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            IntArrays.quickSort(order, 0, size, new AbstractIntComparator() {
+                @Override
+                public int compare(int a, int b) {
+                    if (sameEdge(a, b)) return 0;
+                    return MSTMessage.lighter(weight[a], lo(a), hi(a), weight[b], lo(b), hi(b)) ? -1 : 1;
+                }
+            });
+
+            boolean[] kept = new boolean[size];
+            for (int k = 0; k < size; ) {
+                int first = order[k];
+                int end = k + 1;
+                while (end < size && sameEdge(first, order[end])) end++;
+                int a = find(parent, Arrays.binarySearch(ids, 0, n, src[first]));
+                int b = find(parent, Arrays.binarySearch(ids, 0, n, dst[first]));
+                if (a != b) {
+                    parent[a] = b;
+                    for (int j = k; j < end; j++) kept[order[j]] = true;
+                }
+                k = end;
+            }
+            return kept;
+        }
+
+        private boolean sameEdge(int a, int b) {
+            return weight[a] == weight[b] && lo(a) == lo(b) && hi(a) == hi(b);
+        }
+
+        private long lo(int i) {
+            return Math.min(src[i], dst[i]);
+        }
+
+        private long hi(int i) {
+            return Math.max(src[i], dst[i]);
+        }
+
+        private static int find(int[] parent, int v) {
+            while (parent[v] != v) {
+                parent[v] = parent[parent[v]];
+                v = parent[v];
+            }
+            return v;
+        }
+
+        @Override
+        public boolean nextEdge() {
+            while (next < size) {
+                int i = next++;
+                if (!keep[i]) continue;
+                sourceId.set(src[i]);
+                edge.getTargetVertexId().set(dst[i]);
+                edge.getValue().set(weight[i]);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public LongWritable getCurrentSourceId() {
+            return sourceId;
+        }
+
+        @Override
+        public Edge<LongWritable, DoubleWritable> getCurrentEdge() {
+            return edge;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        @Override
+        public float getProgress() {
+            return size == 0 ? 1f : (float) next / size;
+        }
+    }
+}
@@ -15,44 +15,37 @@ public class LongDoubleTextEdgeInputFormat extends TextEdgeInputFormat<LongWrita
 
     @Override
     public EdgeReader<LongWritable, DoubleWritable> createEdgeReader(InputSplit split, TaskAttemptContext context) throws IOException {
-        return new TextEdgeReaderFromEachLine() {
+        return new TextEdgeReaderFromEachLineProcessed<Text>() {
+            private final LineTokenizer tokens = new LineTokenizer();
             private final LongWritable src = new LongWritable();
             private final LongWritable dst = new LongWritable();
             private final DoubleWritable weight = new DoubleWritable();
-            private String lastLine = null;
 
             @Override
-            protected LongWritable getSourceVertexId(Text line) throws IOException {
-                parse(line);
+            protected Text preprocessLine(Text line) throws IOException {
+                tokens.reset(line);
+                if (!tokens.hasNext()) throw new IOException("Empty line in edge list is not allowed");
+                src.set(tokens.nextLong());
+                dst.set(tokens.nextLong());
+                if (!tokens.hasNext()) throw new IOException("Expected: src dst weight, got: " + line);
+                weight.set(tokens.nextDouble());
+                return line;
+            }
+
+            @Override
+            protected LongWritable getSourceVertexId(Text line) {
                 return src;
             }
 
             @Override
-            protected LongWritable getTargetVertexId(Text line) throws IOException {
-                parse(line);
+            protected LongWritable getTargetVertexId(Text line) {
                 return dst;
             }
 
             @Override
-            protected DoubleWritable getValue(Text line) throws IOException {
-                parse(line);
+            protected DoubleWritable getValue(Text line) {
                 return weight;
             }
-
-            private void parse(Text line) throws IOException {
-                String s = line.toString().trim();
-                if (s.equals(lastLine)) return; // already parsed
-                lastLine = s;
-                if (s.isEmpty()) throw new IOException("Empty line in edge list is not allowed");
-                String[] toks = s.split("\\s+");
-                if (toks.length < 3) throw new IOException("Expected: src dst weight, got: " + s);
-                long u = Long.parseLong(toks[0]);
-                long v = Long.parseLong(toks[1]);
-                double w = Double.parseDouble(toks[2]);
-                src.set(u);
-                dst.set(v);
-                weight.set(w);
-            }
         };
     }
 }
@@ -0,0 +1,52 @@
+package org.example.mst.input;
+
+import org.apache.giraph.io.EdgeReader;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Symmetric Matrix Market coordinate files ({@code .mtx}), read directly: {@code i j [w]} entries
+ * become edges in both directions, pattern matrices get weight 1. The banner and the size line
+ * only appear in the first split, which also rejects anything that isn't a symmetric coordinate
+ * matrix.
+ */
+public class MatrixMarketEdgeInputFormat extends SymmetricTextEdgeInputFormat {
+
+    @Override
+    public EdgeReader<LongWritable, DoubleWritable> createEdgeReader(InputSplit split, TaskAttemptContext context) throws IOException {
+        return new SymmetricEdgeReader() {
+            private boolean sizeLineSeen;
+
+            @Override
+            protected boolean parse(Text line, LineTokenizer tokens, boolean firstSplit) throws IOException {
+                int first = tokens.peek();
+                if (first == -1) return false;
+                if (first == '%') {
+                    if (firstSplit && line.getLength() > 1 && line.getBytes()[1] == '%') checkBanner(line);
+                    return false;
+                }
+                if (firstSplit && !sizeLineSeen) {
+                    sizeLineSeen = true;
+                    return false;
+                }
+                src = tokens.nextLong();
+                dst = tokens.nextLong();
+                weight = tokens.hasNext() ? tokens.nextDouble() : 1.0;
+                return true;
+            }
+        };
+    }
+
+    private static void checkBanner(Text line) throws IOException {
+        String banner = line.toString().toLowerCase(Locale.ROOT);
+        if (!banner.contains("coordinate") || !banner.contains("symmetric")) {
+            throw new IOException("Only symmetric coordinate Matrix Market files are supported, got: " + line);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.mst.input;
+
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.edge.EdgeFactory;
+import org.apache.giraph.edge.ReusableEdge;
+import org.apache.giraph.io.formats.TextEdgeInputFormat;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+
+import java.io.IOException;
+
+/**
+ * Base for text formats that list every undirected edge once. Each parsed line is handed to
+ * Giraph twice, as {@code u -> v} and {@code v -> u}, so no expanded copy of the file is needed
+ * on disk. Self-loops are dropped.
+ */
+public abstract class SymmetricTextEdgeInputFormat extends TextEdgeInputFormat<LongWritable, DoubleWritable> {
+
+    /** Reader that expands one parsed line into both directions, reusing the same writables. */
+    protected abstract class SymmetricEdgeReader extends TextEdgeReader {
+        private final LineTokenizer tokens = new LineTokenizer();
+        private final LongWritable sourceId = new LongWritable();
+        private final ReusableEdge<LongWritable, DoubleWritable> edge =
+                EdgeFactory.createReusable(new LongWritable(), new DoubleWritable());
+        private boolean reversePending;
+        private boolean firstSplit;
+
+        /** Endpoints and weight of the line accepted by the last {@link #parse} call. */
+        protected long src;
+        protected long dst;
+        protected double weight;
+
+        /**
+         * Parses one line into {@link #src}, {@link #dst} and {@link #weight}.
+         *
+         * @param firstSplit whether this split starts at the beginning of the file, i.e. sees the header
+         * @return false for lines that carry no edge (comments, headers, blank lines)
+         */
+        protected abstract boolean parse(Text line, LineTokenizer tokens, boolean firstSplit) throws IOException;
+
+        @Override
+        public void initialize(InputSplit inputSplit, TaskAttemptContext context) throws IOException, InterruptedException {
+            super.initialize(inputSplit, context);
+            firstSplit = !(inputSplit instanceof FileSplit) || ((FileSplit) inputSplit).getStart() == 0;
+        }
+
+        @Override
+        public boolean nextEdge() throws IOException, InterruptedException {
+            if (reversePending) {
+                reversePending = false;
+                sourceId.set(dst);
+                edge.getTargetVertexId().set(src);
+                return true;
+            }
+            while (getRecordReader().nextKeyValue()) {
+                Text line = getRecordReader().getCurrentValue();
+                if (!parse(line, tokens.reset(line), firstSplit) || src == dst) continue;
+                sourceId.set(src);
+                edge.getTargetVertexId().set(dst);
+                edge.getValue().set(weight);
+                reversePending = true;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public LongWritable getCurrentSourceId() {
+            return sourceId;
+        }
+
+        @Override
+        public Edge<LongWritable, DoubleWritable> getCurrentEdge() {
+            return edge;
+        }
+    }
+}
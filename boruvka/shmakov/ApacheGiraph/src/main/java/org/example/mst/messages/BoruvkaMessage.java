@@ -0,0 +1,33 @@
+package org.example.mst.messages;
+
+import org.apache.hadoop.io.Writable;
+
+/**
+ * What the Boruvka phases read from {@link MSTMessage} and {@link CompactMSTMessage}, with ids
+ * widened to long and weights to double. Types and field meanings are those of
+ * {@link MSTMessage}.
+ */
+public interface BoruvkaMessage extends Writable {
+    byte getType();
+
+    long getSrcVertexId();
+
+    long getSrcRootId();
+
+    long getTargetRootId();
+
+    double getEdgeWeight();
+
+    long getTieA();
+
+    long getTieB();
+
+    /** COMPONENT_STATS: vertices of the handed-over component. */
+    long getComponentSize();
+
+    /** COMPONENT_STATS: its forest weight, including the hook edge. */
+    double getForestWeight();
+
+    /** Bytes {@link #write} produces for this message, without encoding it. */
+    int serializedSize();
+}
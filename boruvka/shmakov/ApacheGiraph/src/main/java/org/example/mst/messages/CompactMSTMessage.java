@@ -0,0 +1,270 @@
+package org.example.mst.messages;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * {@link MSTMessage} of the compact job: dense int ids and float edge weights. The message types
+ * and their wire layout are the same, with unsigned varint ids (dense ids are never negative) and
+ * a 4-byte weight. Component totals keep their forest weight as a double, the sum of many float
+ * edges would drift otherwise.
+ */
+public class CompactMSTMessage implements BoruvkaMessage {
+    public byte type;
+
+    public int srcVertexId;
+    public int srcRootId;
+    public int targetRootId;
+    public float edgeWeight;
+
+    public int tieA;
+    public int tieB;
+
+    /** COMPONENT_STATS only. */
+    public double forestWeight;
+
+    public CompactMSTMessage() {}
+
+    public static CompactMSTMessage announce(int srcVertexId, int srcRootId) {
+        CompactMSTMessage m = new CompactMSTMessage();
+        m.type = MSTMessage.ANNOUNCE;
+        m.srcVertexId = srcVertexId;
+        m.srcRootId = srcRootId;
+        return m;
+    }
+
+    public static CompactMSTMessage candidate(int srcRootId, int targetRootId, float w, int a, int b) {
+        CompactMSTMessage m = new CompactMSTMessage();
+        m.type = MSTMessage.CANDIDATE;
+        m.srcRootId = srcRootId;
+        m.targetRootId = targetRootId;
+        m.edgeWeight = w;
+        m.tieA = a;
+        m.tieB = b;
+        return m;
+    }
+
+    public static CompactMSTMessage parentQuery(int childVertexId) {
+        CompactMSTMessage m = new CompactMSTMessage();
+        m.type = MSTMessage.PARENT_QUERY;
+        m.srcVertexId = childVertexId;
+        return m;
+    }
+
+    public static CompactMSTMessage parentReply(int childVertexId, int parentsParentId) {
+        CompactMSTMessage m = new CompactMSTMessage();
+        m.type = MSTMessage.PARENT_REPLY;
+        m.srcVertexId = childVertexId;
+        m.targetRootId = parentsParentId;
+        return m;
+    }
+
+    /** Original endpoints (a, b), a <= b, ride along, see {@link MSTMessage#contractEdge}. */
+    public static CompactMSTMessage contractEdge(int targetRootId, float w, int a, int b) {
+        CompactMSTMessage m = new CompactMSTMessage();
+        m.type = MSTMessage.CONTRACT_EDGE;
+        m.targetRootId = targetRootId;
+        m.edgeWeight = w;
+        m.tieA = a;
+        m.tieB = b;
+        return m;
+    }
+
+    /** The vertex count travels in {@code tieA}, see {@link MSTMessage#componentStats}. */
+    public static CompactMSTMessage componentStats(int vertices, double forestWeight) {
+        CompactMSTMessage m = new CompactMSTMessage();
+        m.type = MSTMessage.COMPONENT_STATS;
+        m.tieA = vertices;
+        m.forestWeight = forestWeight;
+        return m;
+    }
+
+    public void set(CompactMSTMessage other) {
+        type = other.type;
+        srcVertexId = other.srcVertexId;
+        srcRootId = other.srcRootId;
+        targetRootId = other.targetRootId;
+        edgeWeight = other.edgeWeight;
+        tieA = other.tieA;
+        tieB = other.tieB;
+        forestWeight = other.forestWeight;
+    }
+
+    @Override
+    public byte getType() {
+        return type;
+    }
+
+    @Override
+    public long getSrcVertexId() {
+        return srcVertexId;
+    }
+
+    @Override
+    public long getSrcRootId() {
+        return srcRootId;
+    }
+
+    @Override
+    public long getTargetRootId() {
+        return targetRootId;
+    }
+
+    @Override
+    public double getEdgeWeight() {
+        return edgeWeight;
+    }
+
+    @Override
+    public long getTieA() {
+        return tieA;
+    }
+
+    @Override
+    public long getTieB() {
+        return tieB;
+    }
+
+    @Override
+    public long getComponentSize() {
+        return tieA;
+    }
+
+    @Override
+    public double getForestWeight() {
+        return forestWeight;
+    }
+
+    /** {@link MSTMessage#lighter} on compact edges. */
+    public static boolean lighter(float w, int a, int b, float bestW, int bestA, int bestB) {
+        return w < bestW || (w == bestW && (a < bestA || (a == bestA && b < bestB)));
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeByte(type);
+        switch (type) {
+            case MSTMessage.ANNOUNCE:
+                writeVarInt(out, srcVertexId);
+                writeVarInt(out, srcRootId);
+                break;
+            case MSTMessage.CANDIDATE:
+                writeVarInt(out, srcRootId);
+                writeVarInt(out, targetRootId);
+                out.writeFloat(edgeWeight);
+                writeVarInt(out, tieA);
+                writeVarInt(out, tieB - tieA);
+                break;
+            case MSTMessage.PARENT_QUERY:
+                writeVarInt(out, srcVertexId);
+                break;
+            case MSTMessage.PARENT_REPLY:
+                writeVarInt(out, srcVertexId);
+                writeVarInt(out, targetRootId);
+                break;
+            case MSTMessage.CONTRACT_EDGE:
+                writeVarInt(out, targetRootId);
+                out.writeFloat(edgeWeight);
+                writeVarInt(out, tieA);
+                writeVarInt(out, tieB - tieA);
+                break;
+            case MSTMessage.COMPONENT_STATS:
+                writeVarInt(out, tieA);
+                out.writeDouble(forestWeight);
+                break;
+            default:
+                throw new IOException("Unknown CompactMSTMessage type: " + type);
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        type = in.readByte();
+        srcVertexId = 0;
+        srcRootId = 0;
+        targetRootId = 0;
+        edgeWeight = 0f;
+        tieA = 0;
+        tieB = 0;
+        forestWeight = 0.0;
+        switch (type) {
+            case MSTMessage.ANNOUNCE:
+                srcVertexId = readVarInt(in);
+                srcRootId = readVarInt(in);
+                break;
+            case MSTMessage.CANDIDATE:
+                srcRootId = readVarInt(in);
+                targetRootId = readVarInt(in);
+                edgeWeight = in.readFloat();
+                tieA = readVarInt(in);
+                tieB = tieA + readVarInt(in);
+                break;
+            case MSTMessage.PARENT_QUERY:
+                srcVertexId = readVarInt(in);
+                break;
+            case MSTMessage.PARENT_REPLY:
+                srcVertexId = readVarInt(in);
+                targetRootId = readVarInt(in);
+                break;
+            case MSTMessage.CONTRACT_EDGE:
+                targetRootId = readVarInt(in);
+                edgeWeight = in.readFloat();
+                tieA = readVarInt(in);
+                tieB = tieA + readVarInt(in);
+                break;
+            case MSTMessage.COMPONENT_STATS:
+                tieA = readVarInt(in);
+                forestWeight = in.readDouble();
+                break;
+            default:
+                throw new IOException("Unknown CompactMSTMessage type: " + type);
+        }
+    }
+
+    @Override
+    public int serializedSize() {
+        switch (type) {
+            case MSTMessage.ANNOUNCE:
+                return 1 + varIntSize(srcVertexId) + varIntSize(srcRootId);
+            case MSTMessage.CANDIDATE:
+                return 1 + varIntSize(srcRootId) + varIntSize(targetRootId) + 4 + varIntSize(tieA) + varIntSize(tieB - tieA);
+            case MSTMessage.PARENT_QUERY:
+                return 1 + varIntSize(srcVertexId);
+            case MSTMessage.PARENT_REPLY:
+                return 1 + varIntSize(srcVertexId) + varIntSize(targetRootId);
+            case MSTMessage.CONTRACT_EDGE:
+                return 1 + varIntSize(targetRootId) + 4 + varIntSize(tieA) + varIntSize(tieB - tieA);
+            case MSTMessage.COMPONENT_STATS:
+                return 1 + varIntSize(tieA) + 8;
+            default:
+                return 1;
+        }
+    }
+
+    private static int varIntSize(int v) {
+        int bits = 32 - Integer.numberOfLeadingZeros(v | 1);
+        return (bits + 6) / 7;
+    }
+
+    private static void writeVarInt(DataOutput out, int v) throws IOException {
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int v = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 28) throw new IOException("Malformed varint in CompactMSTMessage");
+            b = in.readByte();
+            v |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return v;
+    }
+}
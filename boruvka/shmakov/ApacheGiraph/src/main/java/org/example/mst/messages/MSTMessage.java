@@ -1,13 +1,17 @@
 package org.example.mst.messages;
 
-import org.apache.hadoop.io.Writable;
-
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 
+public class MSTMessage implements BoruvkaMessage {
+    public static final byte ANNOUNCE = 0;
+    public static final byte CANDIDATE = 1;
+    public static final byte PARENT_QUERY = 3;
+    public static final byte PARENT_REPLY = 4;
+    public static final byte CONTRACT_EDGE = 5;
+    public static final byte COMPONENT_STATS = 6;
 
-public class MSTMessage implements Writable {
     public byte type;
 
     public long srcVertexId;
@@ -22,7 +26,7 @@ public class MSTMessage implements Writable {
 
     public static MSTMessage announce(long srcVertexId, long srcRootId) {
         MSTMessage m = new MSTMessage();
-        m.type = 0;
+        m.type = ANNOUNCE;
         m.srcVertexId = srcVertexId;
         m.srcRootId = srcRootId;
         return m;
@@ -30,7 +34,7 @@ public class MSTMessage implements Writable {
 
     public static MSTMessage candidate(long srcRootId, long targetRootId, double w, long a, long b) {
         MSTMessage m = new MSTMessage();
-        m.type = 1;
+        m.type = CANDIDATE;
         m.srcRootId = srcRootId;
         m.targetRootId = targetRootId;
         m.edgeWeight = w;
@@ -39,49 +43,240 @@ public class MSTMessage implements Writable {
         return m;
     }
 
-    public static MSTMessage hook(long higherRoot, long lowerRoot, double w) {
-        MSTMessage m = new MSTMessage();
-        m.type = 2;
-        m.srcRootId = higherRoot;
-        m.targetRootId = lowerRoot;
-        m.edgeWeight = w;
-        return m;
-    }
-
     public static MSTMessage parentQuery(long childVertexId) {
         MSTMessage m = new MSTMessage();
-        m.type = 3;
+        m.type = PARENT_QUERY;
         m.srcVertexId = childVertexId;
         return m;
     }
 
     public static MSTMessage parentReply(long childVertexId, long parentsParentId) {
         MSTMessage m = new MSTMessage();
-        m.type = 4;
+        m.type = PARENT_REPLY;
         m.srcVertexId = childVertexId;
         m.targetRootId = parentsParentId;
         return m;
     }
 
+    /**
+     * Contraction: a member hands its lightest edge towards a foreign root to its own root,
+     * together with the edge's original endpoints (a, b), a <= b.
+     */
+    public static MSTMessage contractEdge(long targetRootId, double w, long a, long b) {
+        MSTMessage m = new MSTMessage();
+        m.type = CONTRACT_EDGE;
+        m.targetRootId = targetRootId;
+        m.edgeWeight = w;
+        m.tieA = a;
+        m.tieB = b;
+        return m;
+    }
+
+    /**
+     * A hooked root hands the totals of its old component to its new root. The vertex count
+     * travels in {@code tieA}, the forest weight (including the hook edge) in {@code edgeWeight}.
+     */
+    public static MSTMessage componentStats(long vertices, double forestWeight) {
+        MSTMessage m = new MSTMessage();
+        m.type = COMPONENT_STATS;
+        m.tieA = vertices;
+        m.edgeWeight = forestWeight;
+        return m;
+    }
+
+    public void set(MSTMessage other) {
+        type = other.type;
+        srcVertexId = other.srcVertexId;
+        srcRootId = other.srcRootId;
+        targetRootId = other.targetRootId;
+        edgeWeight = other.edgeWeight;
+        tieA = other.tieA;
+        tieB = other.tieB;
+    }
+
+    @Override
+    public byte getType() {
+        return type;
+    }
+
+    @Override
+    public long getSrcVertexId() {
+        return srcVertexId;
+    }
+
+    @Override
+    public long getSrcRootId() {
+        return srcRootId;
+    }
+
+    @Override
+    public long getTargetRootId() {
+        return targetRootId;
+    }
+
+    @Override
+    public double getEdgeWeight() {
+        return edgeWeight;
+    }
+
+    @Override
+    public long getTieA() {
+        return tieA;
+    }
+
+    @Override
+    public long getTieB() {
+        return tieB;
+    }
+
+    @Override
+    public long getComponentSize() {
+        return tieA;
+    }
+
+    @Override
+    public double getForestWeight() {
+        return edgeWeight;
+    }
+
+    /**
+     * Boruvka edge order: by weight, then by the (min, max) endpoint pair.
+     * Returns true if edge (w, a, b) is strictly lighter than (bestW, bestA, bestB).
+     */
+    public static boolean lighter(double w, long a, long b, double bestW, long bestA, long bestB) {
+        return w < bestW || (w == bestW && (a < bestA || (a == bestA && b < bestB)));
+    }
+
+    /**
+     * Only the fields used by the message type go on the wire: ids are zigzag varints,
+     * tieB is stored as a delta to tieA (tieA <= tieB), the weight is written only for
+     * candidates, contracted edges and component totals.
+     */
     @Override
     public void write(DataOutput out) throws IOException {
         out.writeByte(type);
-        out.writeLong(srcVertexId);
-        out.writeLong(srcRootId);
-        out.writeLong(targetRootId);
-        out.writeDouble(edgeWeight);
-        out.writeLong(tieA);
-        out.writeLong(tieB);
+        switch (type) {
+            case ANNOUNCE:
+                writeVarLong(out, srcVertexId);
+                writeVarLong(out, srcRootId);
+                break;
+            case CANDIDATE:
+                writeVarLong(out, srcRootId);
+                writeVarLong(out, targetRootId);
+                out.writeDouble(edgeWeight);
+                writeVarLong(out, tieA);
+                writeVarLong(out, tieB - tieA);
+                break;
+            case PARENT_QUERY:
+                writeVarLong(out, srcVertexId);
+                break;
+            case PARENT_REPLY:
+                writeVarLong(out, srcVertexId);
+                writeVarLong(out, targetRootId);
+                break;
+            case CONTRACT_EDGE:
+                writeVarLong(out, targetRootId);
+                out.writeDouble(edgeWeight);
+                writeVarLong(out, tieA);
+                writeVarLong(out, tieB - tieA);
+                break;
+            case COMPONENT_STATS:
+                writeVarLong(out, tieA);
+                out.writeDouble(edgeWeight);
+                break;
+            default:
+                throw new IOException("Unknown MSTMessage type: " + type);
+        }
     }
 
     @Override
     public void readFields(DataInput in) throws IOException {
         type = in.readByte();
-        srcVertexId = in.readLong();
-        srcRootId = in.readLong();
-        targetRootId = in.readLong();
-        edgeWeight = in.readDouble();
-        tieA = in.readLong();
-        tieB = in.readLong();
-    }
-}
\ No newline at end of file
+        srcVertexId = 0;
+        srcRootId = 0;
+        targetRootId = 0;
+        edgeWeight = 0.0;
+        tieA = 0;
+        tieB = 0;
+        switch (type) {
+            case ANNOUNCE:
+                srcVertexId = readVarLong(in);
+                srcRootId = readVarLong(in);
+                break;
+            case CANDIDATE:
+                srcRootId = readVarLong(in);
+                targetRootId = readVarLong(in);
+                edgeWeight = in.readDouble();
+                tieA = readVarLong(in);
+                tieB = tieA + readVarLong(in);
+                break;
+            case PARENT_QUERY:
+                srcVertexId = readVarLong(in);
+                break;
+            case PARENT_REPLY:
+                srcVertexId = readVarLong(in);
+                targetRootId = readVarLong(in);
+                break;
+            case CONTRACT_EDGE:
+                targetRootId = readVarLong(in);
+                edgeWeight = in.readDouble();
+                tieA = readVarLong(in);
+                tieB = tieA + readVarLong(in);
+                break;
+            case COMPONENT_STATS:
+                tieA = readVarLong(in);
+                edgeWeight = in.readDouble();
+                break;
+            default:
+                throw new IOException("Unknown MSTMessage type: " + type);
+        }
+    }
+
+    @Override
+    public int serializedSize() {
+        switch (type) {
+            case ANNOUNCE:
+                return 1 + varLongSize(srcVertexId) + varLongSize(srcRootId);
+            case CANDIDATE:
+                return 1 + varLongSize(srcRootId) + varLongSize(targetRootId) + 8 + varLongSize(tieA) + varLongSize(tieB - tieA);
+            case PARENT_QUERY:
+                return 1 + varLongSize(srcVertexId);
+            case PARENT_REPLY:
+                return 1 + varLongSize(srcVertexId) + varLongSize(targetRootId);
+            case CONTRACT_EDGE:
+                return 1 + varLongSize(targetRootId) + 8 + varLongSize(tieA) + varLongSize(tieB - tieA);
+            case COMPONENT_STATS:
+                return 1 + varLongSize(tieA) + 8;
+            default:
+                return 1;
+        }
+    }
+
+    private static int varLongSize(long v) {
+        long z = (v << 1) ^ (v >> 63);
+        int bits = 64 - Long.numberOfLeadingZeros(z | 1);
+        return (bits + 6) / 7;
+    }
+
+    private static void writeVarLong(DataOutput out, long v) throws IOException {
+        long z = (v << 1) ^ (v >> 63);
+        while ((z & ~0x7FL) != 0) {
+            out.writeByte((int) ((z & 0x7F) | 0x80));
+            z >>>= 7;
+        }
+        out.writeByte((int) z);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long z = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63) throw new IOException("Malformed varint in MSTMessage");
+            b = in.readByte();
+            z |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (z >>> 1) ^ -(z & 1);
+    }
+}
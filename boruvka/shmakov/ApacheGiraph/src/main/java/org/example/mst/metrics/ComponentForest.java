@@ -0,0 +1,114 @@
+package org.example.mst.metrics;
+
+import org.apache.hadoop.io.Writable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Summary of the finished components of the spanning forest: how many there are, their total
+ * weight, and the {@link #TOP} largest by vertex count (ties by lower root id) with their own
+ * forest weights. Every finished root contributes one component through
+ * {@link ComponentForestAggregator}.
+ */
+public class ComponentForest implements Writable {
+    public static final int TOP = 10;
+
+    private long components;
+    private double totalWeight;
+    private int topCount;
+    private final long[] topRoots = new long[TOP];
+    private final long[] topSizes = new long[TOP];
+    private final double[] topWeights = new double[TOP];
+
+    public static ComponentForest of(long root, long size, double weight) {
+        ComponentForest f = new ComponentForest();
+        f.add(root, size, weight);
+        return f;
+    }
+
+    public void add(long root, long size, double weight) {
+        components++;
+        totalWeight += weight;
+        offer(root, size, weight);
+    }
+
+    public void merge(ComponentForest other) {
+        components += other.components;
+        totalWeight += other.totalWeight;
+        for (int i = 0; i < other.topCount; i++) {
+            offer(other.topRoots[i], other.topSizes[i], other.topWeights[i]);
+        }
+    }
+
+    /** Insertion into the sorted top list, dropping whatever falls off the end. */
+    private void offer(long root, long size, double weight) {
+        int pos = topCount;
+        while (pos > 0 && larger(size, root, topSizes[pos - 1], topRoots[pos - 1])) pos--;
+        if (pos == TOP) return;
+        int last = Math.min(topCount, TOP - 1);
+        for (int i = last; i > pos; i--) {
+            topRoots[i] = topRoots[i - 1];
+            topSizes[i] = topSizes[i - 1];
+            topWeights[i] = topWeights[i - 1];
+        }
+        topRoots[pos] = root;
+        topSizes[pos] = size;
+        topWeights[pos] = weight;
+        if (topCount < TOP) topCount++;
+    }
+
+    private static boolean larger(long size, long root, long otherSize, long otherRoot) {
+        return size > otherSize || (size == otherSize && root < otherRoot);
+    }
+
+    public long getComponents() {
+        return components;
+    }
+
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    public int getTopCount() {
+        return topCount;
+    }
+
+    public long getTopRoot(int i) {
+        return topRoots[i];
+    }
+
+    public long getTopSize(int i) {
+        return topSizes[i];
+    }
+
+    public double getTopWeight(int i) {
+        return topWeights[i];
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(components);
+        out.writeDouble(totalWeight);
+        out.writeInt(topCount);
+        for (int i = 0; i < topCount; i++) {
+            out.writeLong(topRoots[i]);
+            out.writeLong(topSizes[i]);
+            out.writeDouble(topWeights[i]);
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        components = in.readLong();
+        totalWeight = in.readDouble();
+        topCount = in.readInt();
+        if (topCount < 0 || topCount > TOP) throw new IOException("Bad component count " + topCount);
+        for (int i = 0; i < topCount; i++) {
+            topRoots[i] = in.readLong();
+            topSizes[i] = in.readLong();
+            topWeights[i] = in.readDouble();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.mst.metrics;
+
+import org.apache.giraph.aggregators.BasicAggregator;
+
+/** Merges the {@link ComponentForest} summaries of finished components. */
+public class ComponentForestAggregator extends BasicAggregator<ComponentForest> {
+
+    @Override
+    public void aggregate(ComponentForest value) {
+        getAggregatedValue().merge(value);
+    }
+
+    @Override
+    public ComponentForest createInitialValue() {
+        return new ComponentForest();
+    }
+}
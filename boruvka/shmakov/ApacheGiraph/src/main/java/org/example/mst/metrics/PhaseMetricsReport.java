@@ -0,0 +1,106 @@
+package org.example.mst.metrics;
+
+import org.example.mst.BoruvkaMSTComputation;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One row per superstep: the Boruvka round and phase it ran, its wall time as seen by the
+ * master (barrier to barrier), and the counters the workers aggregated during it. Kept by
+ * {@link org.example.mst.BoruvkaMasterCompute} and written once the job halts. Roots are only
+ * counted in PARENT_UPDATE supersteps; other rows leave that column empty ({@code null} in JSON).
+ */
+public class PhaseMetricsReport {
+    private static final String[] COLUMNS = {
+            "superstep", "round", "phase", "wall_ms", "active_vertices", "messages", "message_bytes",
+            "roots", "hooks", "parent_changes"
+    };
+
+    private static final class Row {
+        long superstep;
+        long round;
+        int phase;
+        double wallMs;
+        long activeVertices;
+        long messages;
+        long messageBytes;
+        Long roots;
+        long hooks;
+        long parentChanges;
+
+        Object[] values() {
+            return new Object[]{superstep, round, BoruvkaMSTComputation.phaseName(phase), wallMs,
+                    activeVertices, messages, messageBytes, roots, hooks, parentChanges};
+        }
+    }
+
+    private final List<Row> rows = new ArrayList<>();
+
+    public void record(long superstep, long round, int phase, long wallNanos, long activeVertices,
+                       long messages, long messageBytes, long roots, long hooks, long parentChanges) {
+        Row r = new Row();
+        r.superstep = superstep;
+        r.round = round;
+        r.phase = phase;
+        r.wallMs = wallNanos / 1e6;
+        r.activeVertices = activeVertices;
+        r.messages = messages;
+        r.messageBytes = messageBytes;
+        r.roots = phase == BoruvkaMSTComputation.PHASE_PARENT_UPDATE ? roots : null;
+        r.hooks = hooks;
+        r.parentChanges = parentChanges;
+        rows.add(r);
+    }
+
+    /** JSON array of row objects if {@code path} ends with {@code .json}, CSV with a header otherwise. */
+    public void write(String path) throws IOException {
+        boolean json = path.endsWith(".json");
+        try (Writer w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path), StandardCharsets.UTF_8))) {
+            if (json) writeJson(w);
+            else writeCsv(w);
+        }
+    }
+
+    private void writeCsv(Writer w) throws IOException {
+        w.write(String.join(",", COLUMNS));
+        w.write('\n');
+        for (Row r : rows) {
+            Object[] values = r.values();
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) w.write(',');
+                w.write(format(values[i]));
+            }
+            w.write('\n');
+        }
+    }
+
+    private void writeJson(Writer w) throws IOException {
+        w.write("[\n");
+        for (int r = 0; r < rows.size(); r++) {
+            Object[] values = rows.get(r).values();
+            w.write("  {");
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) w.write(", ");
+                w.write('"' + COLUMNS[i] + "\": ");
+                // phase names are plain identifiers, no escaping needed
+                if (values[i] == null) w.write("null");
+                else w.write(values[i] instanceof String ? '"' + (String) values[i] + '"' : format(values[i]));
+            }
+            w.write(r + 1 < rows.size() ? "},\n" : "}\n");
+        }
+        w.write("]\n");
+    }
+
+    private static String format(Object value) {
+        if (value == null) return "";
+        return value instanceof Double ? String.format(Locale.ROOT, "%.3f", (Double) value) : String.valueOf(value);
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.mst.output;
+
+import org.apache.giraph.io.VertexWriter;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.example.mst.MSTVertexValue;
+import org.example.mst.input.BinaryEdgeInputFormat;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+
+/**
+ * MST edges in the fixed-width format of {@link BinaryEdgeInputFormat}, one {@code (u, v, w)}
+ * record per edge with u < v, so a part file can be fed back into the job as-is. The edge count
+ * in the header is only known at close and is patched in place, which needs a local file system.
+ */
+public class BinaryMstEdgeOutputFormat extends MstEdgeOutputFormat {
+
+    @Override
+    protected String extension() {
+        return ".bedges";
+    }
+
+    @Override
+    public VertexWriter<LongWritable, MSTVertexValue, DoubleWritable> createVertexWriter(TaskAttemptContext context) {
+        return new MstEdgeWriter() {
+            private DataOutputStream data;
+            private long edges;
+
+            /** Raw local stream: a checksum file would no longer match once the header is patched. */
+            @Override
+            protected OutputStream create() throws IOException {
+                if (!(fs instanceof LocalFileSystem)) {
+                    throw new IOException("Binary MST output needs a local file system, got " + fs.getUri());
+                }
+                return ((LocalFileSystem) fs).getRaw().create(path, false);
+            }
+
+            @Override
+            protected void writeHeader() throws IOException {
+                data = new DataOutputStream(out);
+                data.writeInt(BinaryEdgeInputFormat.MAGIC);
+                data.writeInt(BinaryEdgeInputFormat.VERSION);
+                data.writeLong(0L); // patched in close
+            }
+
+            @Override
+            protected void writeEdge(long a, long b, double w) throws IOException {
+                data.writeLong(a);
+                data.writeLong(b);
+                data.writeDouble(w);
+                edges++;
+            }
+
+            @Override
+            public void close(TaskAttemptContext context) throws IOException {
+                super.close(context);
+                try (RandomAccessFile raf = new RandomAccessFile(((LocalFileSystem) fs).pathToFile(path), "rw")) {
+                    raf.seek(8);
+                    raf.writeLong(edges);
+                }
+            }
+        };
+    }
+}
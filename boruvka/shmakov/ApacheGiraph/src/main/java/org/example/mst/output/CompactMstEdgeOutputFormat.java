@@ -0,0 +1,72 @@
+package org.example.mst.output;
+
+import org.apache.giraph.conf.BooleanConfOption;
+import org.apache.giraph.conf.ImmutableClassesGiraphConfiguration;
+import org.apache.giraph.graph.Vertex;
+import org.apache.giraph.io.VertexOutputFormat;
+import org.apache.giraph.io.VertexWriter;
+import org.apache.hadoop.io.FloatWritable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.OutputCommitter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.example.mst.CompactMSTVertexValue;
+import org.example.mst.compact.IdTable;
+
+import java.io.IOException;
+
+/**
+ * MST edges of a compact job with their original ids, in the layout of
+ * {@link TextMstEdgeOutputFormat} or, with {@link #BINARY}, {@link BinaryMstEdgeOutputFormat}.
+ * Those formats write the part files; this one only translates each record through the
+ * {@link IdTable}. Weights are written as the float values the job ran on.
+ */
+public class CompactMstEdgeOutputFormat extends VertexOutputFormat<IntWritable, CompactMSTVertexValue, FloatWritable> {
+    public static final BooleanConfOption BINARY = new BooleanConfOption("boruvka.compact.binaryOutput", false,
+            "Write .bedges part files instead of text");
+
+    private MstEdgeOutputFormat files;
+
+    @Override
+    public void setConf(ImmutableClassesGiraphConfiguration<IntWritable, CompactMSTVertexValue, FloatWritable> conf) {
+        super.setConf(conf);
+        files = BINARY.get(conf) ? new BinaryMstEdgeOutputFormat() : new TextMstEdgeOutputFormat();
+    }
+
+    @Override
+    public VertexWriter<IntWritable, CompactMSTVertexValue, FloatWritable> createVertexWriter(TaskAttemptContext context) {
+        MstEdgeOutputFormat.MstEdgeWriter writer = (MstEdgeOutputFormat.MstEdgeWriter) files.createVertexWriter(context);
+        return new VertexWriter<IntWritable, CompactMSTVertexValue, FloatWritable>() {
+            private IdTable ids;
+
+            @Override
+            public void initialize(TaskAttemptContext context) throws IOException {
+                ids = IdTable.load(IdTable.ID_TABLE.get(context.getConfiguration()));
+                writer.initialize(context);
+            }
+
+            @Override
+            public void writeVertex(Vertex<IntWritable, CompactMSTVertexValue, FloatWritable> vertex) throws IOException {
+                CompactMSTVertexValue value = vertex.getValue();
+                if (!value.hasMstEdge()) return;
+                // dense ids keep the original order, so a < b still holds
+                writer.writeEdge(ids.originalId((int) value.getEdgeA()), ids.originalId((int) value.getEdgeB()), value.getEdgeWeight());
+            }
+
+            @Override
+            public void close(TaskAttemptContext context) throws IOException, InterruptedException {
+                writer.close(context);
+            }
+        };
+    }
+
+    @Override
+    public void checkOutputSpecs(JobContext context) throws IOException, InterruptedException {
+        files.checkOutputSpecs(context);
+    }
+
+    @Override
+    public OutputCommitter getOutputCommitter(TaskAttemptContext context) throws IOException, InterruptedException {
+        return files.getOutputCommitter(context);
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.mst.output;
+
+import org.apache.giraph.graph.Vertex;
+import org.apache.giraph.io.VertexOutputFormat;
+import org.apache.giraph.io.VertexWriter;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.OutputCommitter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapred.InvalidJobConfException;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputCommitter;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.TextOutputFormat;
+import org.example.mst.MSTVertexValue;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes the MST edge each vertex hooked on, one record per hooked vertex, straight into a
+ * buffered stream. Giraph creates one writer per output thread; every writer gets its own part
+ * file, so {@code giraph.numOutputThreads} threads write in parallel without sharing a stream.
+ * The commit protocol is the usual file output one. Unlike a plain file output format, an
+ * existing output directory is reused: the part files and success marker of an earlier run are
+ * deleted, other files stay.
+ */
+public abstract class MstEdgeOutputFormat extends VertexOutputFormat<LongWritable, MSTVertexValue, DoubleWritable> {
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final TextOutputFormat<Text, Text> files = new TextOutputFormat<>();
+    private final AtomicInteger writers = new AtomicInteger();
+
+    /** Suffix of the part files, e.g. {@code ".txt"}. */
+    protected abstract String extension();
+
+    /** Writer for one part file; {@link #out} is open once {@link #initialize} returns. */
+    protected abstract class MstEdgeWriter extends VertexWriter<LongWritable, MSTVertexValue, DoubleWritable> {
+        protected Path path;
+        protected FileSystem fs;
+        protected OutputStream out;
+
+        @Override
+        public void initialize(TaskAttemptContext context) throws IOException {
+            path = files.getDefaultWorkFile(context, String.format("-%04d%s", writers.getAndIncrement(), extension()));
+            fs = path.getFileSystem(context.getConfiguration());
+            out = new BufferedOutputStream(create(), BUFFER_BYTES);
+            writeHeader();
+        }
+
+        protected OutputStream create() throws IOException {
+            return fs.create(path, false);
+        }
+
+        protected void writeHeader() throws IOException {
+        }
+
+        protected abstract void writeEdge(long a, long b, double w) throws IOException;
+
+        @Override
+        public void writeVertex(Vertex<LongWritable, MSTVertexValue, DoubleWritable> vertex) throws IOException {
+            MSTVertexValue value = vertex.getValue();
+            if (value.hasMstEdge()) writeEdge(value.getEdgeA(), value.getEdgeB(), value.getEdgeWeight());
+        }
+
+        @Override
+        public void close(TaskAttemptContext context) throws IOException {
+            out.close();
+        }
+    }
+
+    @Override
+    public void checkOutputSpecs(JobContext context) throws IOException, InterruptedException {
+        Path dir = FileOutputFormat.getOutputPath(context);
+        if (dir == null) throw new InvalidJobConfException("Output directory not set.");
+        removePreviousResult(dir, context.getConfiguration());
+    }
+
+    /** Deletes the {@code part-*} files and the success marker an earlier run left in {@code dir}. */
+    public static void removePreviousResult(Path dir, Configuration conf) throws IOException {
+        FileSystem fs = dir.getFileSystem(conf);
+        if (!fs.exists(dir)) return;
+        for (FileStatus f : fs.listStatus(dir)) {
+            String name = f.getPath().getName();
+            if (name.startsWith("part-") || name.equals(FileOutputCommitter.SUCCEEDED_FILE_NAME)) {
+                fs.delete(f.getPath(), false);
+            }
+        }
+    }
+
+    @Override
+    public OutputCommitter getOutputCommitter(TaskAttemptContext context) throws IOException, InterruptedException {
+        return files.getOutputCommitter(context);
+    }
+}
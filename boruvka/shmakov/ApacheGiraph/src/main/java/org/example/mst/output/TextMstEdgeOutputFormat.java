@@ -0,0 +1,39 @@
+package org.example.mst.output;
+
+import org.apache.giraph.io.VertexWriter;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.example.mst.MSTVertexValue;
+
+import java.io.IOException;
+
+/**
+ * MST edges as {@code u v w} lines with u < v, the same layout as the {@code .edgelist} input.
+ * Lines are formatted into one reused buffer, no String per edge.
+ */
+public class TextMstEdgeOutputFormat extends MstEdgeOutputFormat {
+
+    @Override
+    protected String extension() {
+        return ".txt";
+    }
+
+    @Override
+    public VertexWriter<LongWritable, MSTVertexValue, DoubleWritable> createVertexWriter(TaskAttemptContext context) {
+        return new MstEdgeWriter() {
+            private final StringBuilder line = new StringBuilder(64);
+            private byte[] bytes = new byte[64];
+
+            @Override
+            protected void writeEdge(long a, long b, double w) throws IOException {
+                line.setLength(0);
+                line.append(a).append(' ').append(b).append(' ').append(w).append('\n');
+                int n = line.length();
+                if (n > bytes.length) bytes = new byte[n];
+                for (int i = 0; i < n; i++) bytes[i] = (byte) line.charAt(i);
+                out.write(bytes, 0, n);
+            }
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.mst.partition;
+
+import org.apache.giraph.conf.LongConfOption;
+import org.apache.giraph.conf.StrConfOption;
+import org.apache.giraph.partition.GraphPartitionerFactory;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.example.mst.MSTVertexValue;
+
+/**
+ * Cuts the vertex id range into {@code partitionCount} equal slices instead of hashing. Road
+ * networks in DIMACS / SuiteSparse order number nearby intersections closely, so most edges stay
+ * inside one partition. With {@link #ORDER_FILE} the slices are cut in a precomputed
+ * {@link VertexOrdering} instead, which gives the same effect for arbitrarily numbered graphs.
+ * Contiguous partitions also go to the same worker.
+ */
+public class LongRangePartitionerFactory extends GraphPartitionerFactory<LongWritable, MSTVertexValue, DoubleWritable> {
+    public static final LongConfOption MIN_ID = new LongConfOption("boruvka.partition.minId", 0,
+            "Smallest vertex id, start of the range cut into partitions");
+    public static final LongConfOption MAX_ID = new LongConfOption("boruvka.partition.maxId", Integer.MAX_VALUE,
+            "Largest vertex id, end of the range cut into partitions");
+    public static final StrConfOption ORDER_FILE = new StrConfOption("boruvka.partition.orderFile", null,
+            "Vertex ordering written by VertexOrdering; ranks are cut instead of ids when set");
+
+    private VertexOrdering ordering;
+    private long minId;
+    /** Written last, so a non-zero span publishes the other fields to every thread. */
+    private volatile long span;
+
+    private void init() {
+        if (span != 0) return;
+        String file = ORDER_FILE.get(getConf());
+        if (file != null) ordering = VertexOrdering.load(file);
+        minId = MIN_ID.get(getConf());
+        span = Math.max(1, MAX_ID.get(getConf()) - minId + 1);
+    }
+
+    @Override
+    public int getPartition(LongWritable id, int partitionCount, int workerCount) {
+        init();
+        if (ordering != null) {
+            int rank = ordering.rank(id.get());
+            if (rank >= 0) return (int) ((long) rank * partitionCount / ordering.size());
+        }
+        long offset = Math.min(Math.max(id.get() - minId, 0), span - 1);
+        // offset * partitionCount can overflow for huge id ranges; go through double there
+        if (offset < Long.MAX_VALUE / partitionCount) return (int) (offset * partitionCount / span);
+        return (int) Math.min(partitionCount - 1, (double) offset / span * partitionCount);
+    }
+
+    @Override
+    public int getWorker(int partition, int partitionCount, int workerCount) {
+        return (int) ((long) partition * workerCount / partitionCount);
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.mst.partition;
+
+import org.example.mst.input.BinaryEdgeInputFormat;
+import org.example.mst.input.LineTokenizer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Smallest and largest vertex id of an input file, for {@link LongRangePartitionerFactory}.
+ * {@code .mtx} and {@code .gr} declare their size in the header (ids 1..n), other formats are
+ * scanned once.
+ */
+public final class VertexIdRange {
+    public final long min;
+    public final long max;
+
+    private VertexIdRange(long min, long max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    public static VertexIdRange of(String input) throws IOException {
+        if (input.endsWith(".mtx") || input.endsWith(".gr")) {
+            VertexIdRange declared = fromHeader(input);
+            if (declared != null) return declared;
+        }
+        return input.endsWith(".bedges") ? scanBinary(input) : scanText(input);
+    }
+
+    private static VertexIdRange fromHeader(String input) throws IOException {
+        boolean gr = input.endsWith(".gr");
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(input), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("%") || line.startsWith("c")) continue;
+                String[] toks = line.split("\\s+");
+                // .gr: "p sp <n> <m>", .mtx: "<rows> <cols> <nnz>"
+                if (gr && toks.length >= 3 && toks[0].equals("p")) return new VertexIdRange(1, Long.parseLong(toks[2]));
+                if (!gr && toks.length >= 2) return new VertexIdRange(1, Math.max(Long.parseLong(toks[0]), Long.parseLong(toks[1])));
+                if (!gr || line.startsWith("a")) return null;
+            }
+        }
+        return null;
+    }
+
+    private static VertexIdRange scanText(String input) throws IOException {
+        long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+        LineTokenizer tokens = new LineTokenizer();
+        byte[] buf = new byte[1 << 20];
+        int len = 0;
+        try (InputStream in = new FileInputStream(input)) {
+            boolean eof = false;
+            while (!eof) {
+                int n = in.read(buf, len, buf.length - len);
+                if (n < 0) eof = true;
+                else len += n;
+
+                int lineStart = 0;
+                while (lineStart < len) {
+                    int lineEnd = lineStart;
+                    while (lineEnd < len && buf[lineEnd] != '\n') lineEnd++;
+                    if (lineEnd == len && !eof) break;
+                    tokens.reset(buf, lineStart, lineEnd);
+                    lineStart = lineEnd + 1;
+                    if (!tokens.hasNext()) continue;
+                    long u = tokens.nextLong();
+                    long v = tokens.nextLong();
+                    min = Math.min(min, Math.min(u, v));
+                    max = Math.max(max, Math.max(u, v));
+                }
+                if (lineStart >= len) {
+                    len = 0;
+                } else {
+                    System.arraycopy(buf, lineStart, buf, 0, len - lineStart);
+                    len -= lineStart;
+                    if (len == buf.length) buf = java.util.Arrays.copyOf(buf, buf.length * 2);
+                }
+            }
+        }
+        return min > max ? new VertexIdRange(0, 0) : new VertexIdRange(min, max);
+    }
+
+    private static VertexIdRange scanBinary(String input) throws IOException {
+        long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(input), 1 << 16))) {
+            if (in.readInt() != BinaryEdgeInputFormat.MAGIC) throw new IOException(input + " is not a binary edge file");
+            in.readInt();
+            long count = in.readLong();
+            for (long i = 0; i < count; i++) {
+                long u = in.readLong();
+                long v = in.readLong();
+                in.readDouble();
+                min = Math.min(min, Math.min(u, v));
+                max = Math.max(max, Math.max(u, v));
+            }
+        }
+        return min > max ? new VertexIdRange(0, 0) : new VertexIdRange(min, max);
+    }
+}
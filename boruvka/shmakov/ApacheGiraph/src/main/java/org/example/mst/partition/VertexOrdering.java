@@ -0,0 +1,139 @@
+package org.example.mst.partition;
+
+import org.example.mst.shared.CsrGraph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A rank for every vertex, so that {@link LongRangePartitionerFactory} can cut the rank range
+ * instead of the id range. Computed once at load time from a {@link CsrGraph} and passed to the
+ * partitioner as a file: (count, then id/rank pairs by ascending id), big-endian.
+ */
+public final class VertexOrdering {
+    public enum Mode {
+        /** Breadth-first visiting order, each unvisited vertex in id order starting a new search. */
+        BFS,
+        /** Descending degree, ties by id: hubs and their many edges end up together. */
+        DEGREE
+    }
+
+    private static final int MAGIC = 0x564F5244; // "VORD"
+    private static final Map<String, VertexOrdering> LOADED = new ConcurrentHashMap<>();
+
+    private final long[] ids;
+    private final int[] ranks;
+    /** {@code denseRanks[id - minId]} when the ids are dense enough, else null. */
+    private final int[] denseRanks;
+    private final long minId;
+
+    private VertexOrdering(long[] ids, int[] ranks) {
+        this.ids = ids;
+        this.ranks = ranks;
+        minId = ids.length == 0 ? 0 : ids[0];
+        long span = ids.length == 0 ? 0 : ids[ids.length - 1] - minId + 1;
+        if (span <= 2L * ids.length && span < Integer.MAX_VALUE) {
+            denseRanks = new int[(int) span];
+            Arrays.fill(denseRanks, -1);
+            for (int i = 0; i < ids.length; i++) denseRanks[(int) (ids[i] - minId)] = ranks[i];
+        } else {
+            denseRanks = null;
+        }
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /** Rank of {@code id}, or -1 if the vertex was not in the ordered graph. */
+    public int rank(long id) {
+        if (denseRanks != null) {
+            long slot = id - minId;
+            return slot >= 0 && slot < denseRanks.length ? denseRanks[(int) slot] : -1;
+        }
+        int i = Arrays.binarySearch(ids, id);
+        return i >= 0 ? ranks[i] : -1;
+    }
+
+    public static void write(CsrGraph g, Mode mode, String file) throws IOException {
+        int n = g.vertexCount();
+        int[] rank = mode == Mode.BFS ? bfs(g) : byDegree(g);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(n);
+            for (int v = 0; v < n; v++) {
+                out.writeLong(g.idAt(v));
+                out.writeInt(rank[v]);
+            }
+        }
+    }
+
+    /** Loads {@code file} once per JVM; partitioner instances are created many times per job. */
+    public static VertexOrdering load(String file) {
+        return LOADED.computeIfAbsent(file, f -> {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), 1 << 16))) {
+                if (in.readInt() != MAGIC) throw new IOException(f + " is not a vertex ordering file");
+                int n = in.readInt();
+                long[] ids = new long[n];
+                int[] ranks = new int[n];
+                for (int i = 0; i < n; i++) {
+                    ids[i] = in.readLong();
+                    ranks[i] = in.readInt();
+                }
+                return new VertexOrdering(ids, ranks);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read vertex ordering " + f, e);
+            }
+        });
+    }
+
+    /** Drops the cached copy of {@code file}, e.g. before it is rewritten for the next job. */
+    public static void evict(String file) {
+        LOADED.remove(file);
+    }
+
+    private static int[] bfs(CsrGraph g) {
+        int n = g.vertexCount();
+        int[] rank = new int[n];
+        Arrays.fill(rank, -1);
+        int[] queue = new int[n];
+        int next = 0;
+        for (int start = 0; start < n; start++) {
+            if (rank[start] >= 0) continue;
+            int head = next, tail = next;
+            rank[start] = next++;
+            queue[tail++] = start;
+            while (head < tail) {
+                int v = queue[head++];
+                for (int k = 0; k < g.degree(v); k++) {
+                    int u = g.neighbour(v, k);
+                    if (rank[u] >= 0) continue;
+                    rank[u] = next++;
+                    queue[tail++] = u;
+                }
+            }
+        }
+        return rank;
+    }
+
+    private static int[] byDegree(CsrGraph g) {
+        int n = g.vertexCount();
+        // counting sort by degree, descending; stable, so ties stay in id order
+        int maxDegree = 0;
+        for (int v = 0; v < n; v++) maxDegree = Math.max(maxDegree, g.degree(v));
+        int[] start = new int[maxDegree + 2];
+        for (int v = 0; v < n; v++) start[maxDegree - g.degree(v) + 1]++;
+        for (int d = 1; d < start.length; d++) start[d] += start[d - 1];
+        int[] rank = new int[n];
+        for (int v = 0; v < n; v++) rank[v] = start[maxDegree - g.degree(v)]++;
+        return rank;
+    }
+}
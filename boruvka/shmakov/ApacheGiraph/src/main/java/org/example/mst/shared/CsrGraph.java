@@ -0,0 +1,195 @@
+package org.example.mst.shared;
+
+import org.example.mst.input.EdgeFileReader;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * The job's input loaded into compressed sparse rows with compact int vertex ids. Files are read
+ * the way the Giraph path reads them: {@code .edgelist} and {@code .bedges} lines are directed
+ * edges, {@code .mtx} and {@code .gr} entries are expanded into both directions. Like
+ * {@link org.example.mst.edge.WeightSortedLongDoubleEdges}, parallel edges keep only the lightest
+ * copy, self-loops are dropped, and every row is sorted by (weight, original target id).
+ */
+public final class CsrGraph {
+    /** Original id of every compact vertex, ascending. */
+    final long[] ids;
+    /** Row {@code v} is {@code [offsets[v], ends[v])}; rows shrink in place when duplicates go. */
+    final int[] offsets;
+    final int[] ends;
+    final int[] targets;
+    final double[] weights;
+
+    private CsrGraph(long[] ids, int[] offsets, int[] ends, int[] targets, double[] weights) {
+        this.ids = ids;
+        this.offsets = offsets;
+        this.ends = ends;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    public int vertexCount() {
+        return ids.length;
+    }
+
+    /** Original id of compact vertex {@code v}. */
+    public long idAt(int v) {
+        return ids[v];
+    }
+
+    public int degree(int v) {
+        return ends[v] - offsets[v];
+    }
+
+    /** Compact id of the {@code k}-th neighbour of {@code v}, k < degree(v). */
+    public int neighbour(int v, int k) {
+        return targets[offsets[v] + k];
+    }
+
+    /** Directed edges left after deduplication. */
+    public long edgeCount() {
+        long m = 0;
+        for (int v = 0; v < ids.length; v++) m += ends[v] - offsets[v];
+        return m;
+    }
+
+    public static CsrGraph load(String path, ForkJoinPool pool) throws Exception {
+        EdgeBuffer edges = new EdgeBuffer();
+        EdgeFileReader.read(path, edges);
+        return build(edges, EdgeFileReader.isSymmetric(path), pool);
+    }
+
+    private static CsrGraph build(EdgeBuffer e, boolean symmetric, ForkJoinPool pool) throws Exception {
+        // compact ids: sorted distinct endpoints, looked up by binary search
+        long[] all = new long[2 * e.size];
+        System.arraycopy(e.src, 0, all, 0, e.size);
+        System.arraycopy(e.dst, 0, all, e.size, e.size);
+        pool.submit(() -> Arrays.parallelSort(all)).get();
+        int distinct = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (i == 0 || all[i] != all[i - 1]) all[distinct++] = all[i];
+        }
+        long[] ids = Arrays.copyOf(all, distinct);
+        int n = distinct;
+
+        int[] src = new int[e.size];
+        int[] dst = new int[e.size];
+        pool.submit(() -> IntStream.range(0, e.size).parallel().forEach(i -> {
+            src[i] = Arrays.binarySearch(ids, e.src[i]);
+            dst[i] = Arrays.binarySearch(ids, e.dst[i]);
+        })).get();
+
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < e.size; i++) {
+            if (src[i] == dst[i]) continue;
+            offsets[src[i] + 1]++;
+            if (symmetric) offsets[dst[i] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            if ((long) offsets[v + 1] + offsets[v] > Integer.MAX_VALUE) throw new IOException("Too many edges for the shared engine");
+            offsets[v + 1] += offsets[v];
+        }
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < e.size; i++) {
+            int u = src[i], v = dst[i];
+            if (u == v) continue;
+            targets[fill[u]] = v;
+            weights[fill[u]++] = e.w[i];
+            if (symmetric) {
+                targets[fill[v]] = u;
+                weights[fill[v]++] = e.w[i];
+            }
+        }
+
+        int[] ends = new int[n];
+        pool.submit(() -> IntStream.range(0, n).parallel().forEach(v -> {
+            int from = offsets[v], to = offsets[v + 1];
+            // parallel edges: sort by target, keep the lightest of each run
+            sort(targets, weights, from, to, (a, b) -> Integer.compare(targets[a], targets[b]));
+            int end = from;
+            for (int i = from; i < to; i++) {
+                if (end > from && targets[end - 1] == targets[i]) {
+                    if (weights[i] < weights[end - 1]) weights[end - 1] = weights[i];
+                    continue;
+                }
+                targets[end] = targets[i];
+                weights[end++] = weights[i];
+            }
+            ends[v] = end;
+            sort(targets, weights, from, end, (a, b) -> {
+                int c = Double.compare(weights[a], weights[b]);
+                return c != 0 ? c : Long.compare(ids[targets[a]], ids[targets[b]]);
+            });
+        })).get();
+
+        return new CsrGraph(ids, offsets, ends, targets, weights);
+    }
+
+    private interface SlotOrder {
+        int compare(int a, int b);
+    }
+
+    /** Quicksort of {@code [from, to)} under {@code order}, moving targets and weights together. */
+    private static void sort(int[] targets, double[] weights, int from, int to, SlotOrder order) {
+        while (to - from > 16) {
+            int mid = (from + to) >>> 1;
+            // median of three, moved to mid
+            if (order.compare(mid, from) < 0) swap(targets, weights, mid, from);
+            if (order.compare(to - 1, mid) < 0) swap(targets, weights, to - 1, mid);
+            if (order.compare(mid, from) < 0) swap(targets, weights, mid, from);
+            swap(targets, weights, mid, to - 2);
+            int pivot = to - 2;
+            int i = from, j = to - 2;
+            while (true) {
+                while (order.compare(++i, pivot) < 0) { }
+                while (j > from && order.compare(--j, pivot) > 0) { }
+                if (i >= j) break;
+                swap(targets, weights, i, j);
+            }
+            swap(targets, weights, i, to - 2);
+            // recurse into the smaller half, loop on the larger one
+            if (i - from < to - i) {
+                sort(targets, weights, from, i, order);
+                from = i + 1;
+            } else {
+                sort(targets, weights, i + 1, to, order);
+                to = i;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            for (int j = i; j > from && order.compare(j, j - 1) < 0; j--) swap(targets, weights, j, j - 1);
+        }
+    }
+
+    private static void swap(int[] targets, double[] weights, int i, int j) {
+        int t = targets[i]; targets[i] = targets[j]; targets[j] = t;
+        double w = weights[i]; weights[i] = weights[j]; weights[j] = w;
+    }
+
+    /** Growable primitive (src, dst, weight) arrays. */
+    private static final class EdgeBuffer implements EdgeFileReader.Sink {
+        long[] src = new long[1 << 16];
+        long[] dst = new long[1 << 16];
+        double[] w = new double[1 << 16];
+        int size;
+
+        @Override
+        public void edge(long u, long v, double weight) throws IOException {
+            if (size == src.length) {
+                if (size == Integer.MAX_VALUE - 8) throw new IOException("Too many edges for the shared engine");
+                int cap = (int) Math.min(Integer.MAX_VALUE - 8, size * 2L);
+                src = Arrays.copyOf(src, cap);
+                dst = Arrays.copyOf(dst, cap);
+                w = Arrays.copyOf(w, cap);
+            }
+            src[size] = u;
+            dst[size] = v;
+            w[size++] = weight;
+        }
+    }
+}
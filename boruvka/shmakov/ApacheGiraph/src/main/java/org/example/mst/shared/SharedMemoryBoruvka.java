@@ -0,0 +1,131 @@
+package org.example.mst.shared;
+
+import org.example.mst.messages.MSTMessage;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * In-JVM Boruvka over a {@link CsrGraph}, for graphs that fit in one machine's memory: no BSP
+ * barriers, messages or Writables. Each round runs three fork-join passes:
+ * <ol>
+ *   <li>every vertex advances its cursor past edges into its own component (rows are sorted, so
+ *       skipped edges stay internal for good, as in {@link org.example.mst.BoruvkaMSTComputation})
+ *       and offers the first foreign edge to its root with a CAS-min;</li>
+ *   <li>every root resolves the root its lightest edge leads to;</li>
+ *   <li>every root hooks under that root, except the lower-id root of a pair that chose the same
+ *       edge.</li>
+ * </ol>
+ * Edges are ordered by (weight, min endpoint, max endpoint) on the original ids, the same order
+ * the Giraph computation uses, so the MST is the same one. The union-find is lock-free: hooks are
+ * CASes on root slots and {@code find} halves paths with CAS.
+ */
+public final class SharedMemoryBoruvka {
+    private static final long NONE = -1L;
+
+    private final CsrGraph g;
+    private final ForkJoinPool pool;
+    private final AtomicIntegerArray parent;
+    private final int[] cursor;
+    /** Per root: lightest outgoing edge of the round, packed as {@code (vertex << 32) | slot}. */
+    private final AtomicLongArray best;
+    private final int[] otherRoot;
+    /** Slot of the MST edge a vertex hooked on, or -1. */
+    private final int[] mstSlot;
+
+    private int rounds;
+
+    public SharedMemoryBoruvka(CsrGraph g, ForkJoinPool pool) {
+        this.g = g;
+        this.pool = pool;
+        int n = g.vertexCount();
+        parent = new AtomicIntegerArray(n);
+        cursor = new int[n];
+        best = new AtomicLongArray(n);
+        otherRoot = new int[n];
+        mstSlot = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent.set(v, v);
+            cursor[v] = g.offsets[v];
+            mstSlot[v] = -1;
+        }
+    }
+
+    /** Runs rounds until no component has an outgoing edge; returns the forest's weight. */
+    public double run() throws Exception {
+        int n = g.vertexCount();
+        while (true) {
+            rounds++;
+            parallelFor(n, r -> best.set(r, NONE));
+            parallelFor(n, this::offerLightestEdge);
+            parallelFor(n, r -> {
+                long e = best.get(r);
+                otherRoot[r] = e == NONE ? -1 : find(g.targets[(int) e]);
+            });
+            AtomicBoolean hooked = new AtomicBoolean();
+            parallelFor(n, r -> {
+                int s = otherRoot[r];
+                if (s < 0 || (otherRoot[s] == r && r < s)) return;
+                if (parent.compareAndSet(r, r, s)) {
+                    mstSlot[r] = (int) best.get(r);
+                    hooked.set(true);
+                }
+            });
+            if (!hooked.get()) break;
+        }
+
+        // summed in vertex order so the result does not depend on the thread count
+        double weight = 0;
+        for (int v = 0; v < n; v++) {
+            if (mstSlot[v] >= 0) weight += g.weights[mstSlot[v]];
+        }
+        return weight;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    private void offerLightestEdge(int v) {
+        int root = find(v);
+        int i = cursor[v];
+        int end = g.ends[v];
+        while (i < end && find(g.targets[i]) == root) i++;
+        cursor[v] = i;
+        if (i == end) return;
+
+        long candidate = ((long) v << 32) | i;
+        while (true) {
+            long current = best.get(root);
+            if (current != NONE && !lighter(candidate, current)) return;
+            if (best.compareAndSet(root, current, candidate)) return;
+        }
+    }
+
+    private boolean lighter(long x, long y) {
+        int xv = (int) (x >>> 32), xs = (int) x;
+        int yv = (int) (y >>> 32), ys = (int) y;
+        long xa = g.ids[xv], xb = g.ids[g.targets[xs]];
+        long ya = g.ids[yv], yb = g.ids[g.targets[ys]];
+        return MSTMessage.lighter(g.weights[xs], Math.min(xa, xb), Math.max(xa, xb),
+                g.weights[ys], Math.min(ya, yb), Math.max(ya, yb));
+    }
+
+    private int find(int v) {
+        while (true) {
+            int p = parent.get(v);
+            if (p == v) return v;
+            int gp = parent.get(p);
+            if (gp != p) parent.compareAndSet(v, p, gp);
+            v = gp;
+        }
+    }
+
+    private void parallelFor(int n, IntConsumer body) throws Exception {
+        pool.submit(() -> IntStream.range(0, n).parallel().forEach(body)).get();
+    }
+}
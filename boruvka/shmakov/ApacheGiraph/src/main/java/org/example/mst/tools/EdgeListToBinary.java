@@ -0,0 +1,85 @@
+package org.example.mst.tools;
+
+import org.example.mst.input.BinaryEdgeInputFormat;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the fixed-width binary edge file read by {@link BinaryEdgeInputFormat}.
+ * A symmetric {@code .mtx} is expanded into both directions (like {@link MtxToEdgeList}),
+ * an {@code .edgelist} is copied line by line. Lines are checked like the text input formats
+ * check them, so the copy holds the same graph: edge list lines need {@code src dst weight},
+ * only pattern {@code .mtx} entries without a weight get 1.0.
+ */
+public class EdgeListToBinary {
+    public static void main(String[] args) throws Exception {
+        String in = null, out = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--input".equals(args[i]) && i + 1 < args.length) in = args[++i];
+            else if ("--output".equals(args[i]) && i + 1 < args.length) out = args[++i];
+        }
+        if (in == null || out == null) {
+            System.err.println("Usage: java ... EdgeListToBinary --input graph.mtx|graph.edgelist --output graph.bedges");
+            System.exit(2);
+        }
+
+        boolean mtx = in.endsWith(".mtx");
+        long edges = 0;
+
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(in), StandardCharsets.UTF_8));
+             DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(out), 1 << 16))) {
+
+            dos.writeInt(BinaryEdgeInputFormat.MAGIC);
+            dos.writeInt(BinaryEdgeInputFormat.VERSION);
+            dos.writeLong(0L); // patched below
+
+            String line;
+            long lineNo = 0;
+            boolean headerSeen = !mtx;
+            while ((line = br.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.isEmpty() || (mtx && line.startsWith("%"))) continue;
+                if (!headerSeen) { headerSeen = true; continue; } // skip size line
+
+                String[] toks = line.split("\\s+");
+                if (toks.length < 2 || (!mtx && toks.length < 3)) {
+                    throw new IOException(in + ":" + lineNo + ": expected 'src dst weight', got: " + line);
+                }
+                long u, v;
+                double w;
+                try {
+                    u = Long.parseLong(toks[0]);
+                    v = Long.parseLong(toks[1]);
+                    w = toks.length >= 3 ? Double.parseDouble(toks[2]) : 1.0;
+                } catch (NumberFormatException e) {
+                    throw new IOException(in + ":" + lineNo + ": " + e.getMessage(), e);
+                }
+
+                if (mtx) {
+                    if (u == v) continue;
+                    writeEdge(dos, u, v, w);
+                    writeEdge(dos, v, u, w);
+                    edges += 2;
+                } else {
+                    writeEdge(dos, u, v, w);
+                    edges++;
+                }
+            }
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(out, "rw")) {
+            raf.seek(8);
+            raf.writeLong(edges);
+        }
+
+        System.out.println("Converted " + in + " -> " + out + " (Directed edges: " + edges + ")");
+    }
+
+    private static void writeEdge(DataOutputStream dos, long u, long v, double w) throws IOException {
+        dos.writeLong(u);
+        dos.writeLong(v);
+        dos.writeDouble(w);
+    }
+}
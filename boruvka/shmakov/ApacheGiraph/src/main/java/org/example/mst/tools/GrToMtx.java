@@ -1,86 +1,356 @@
 package org.example.mst.tools;
 
+import org.example.mst.input.LineTokenizer;
+
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+/**
+ * DIMACS {@code .gr} to symmetric Matrix Market. Every undirected edge is packed into one long
+ * key {@code (min << 32) | max} with the sign bit flipped, so that plain signed comparison orders
+ * keys like the unsigned 32-bit ids they hold; chunks of the input are parsed and sorted in
+ * parallel, and once the sorted runs plus the chunks still being parsed exceed the memory budget
+ * the runs are merged and spilled to disk. A final k-way merge writes the edges sorted by key.
+ * Parallel edges keep the smallest weight, so the output does not depend on chunking or thread
+ * count.
+ */
 public class GrToMtx {
 
-    static class Edge {
-        long u;
-        long v;
-        double w;
+    private static final int CHUNK_BYTES = 8 << 20;
+    /** Bytes per buffered edge: packed key + weight. */
+    private static final int ENTRY_BYTES = 16;
+    /** A chunk being parsed holds its bytes plus run arrays of the same size (len / 16 entries). */
+    private static final long IN_FLIGHT_BYTES = 2L * CHUNK_BYTES;
+    private static final long SIGN = Long.MIN_VALUE;
+
+    /** A sorted, duplicate-free run of packed edges. */
+    static final class Run {
+        final long[] keys;
+        final double[] weights;
+        final int size;
+        final long maxVertexId;
+        /** {@code a} lines the run was built from, before deduplication. */
+        final int arcs;
 
-        Edge(long u, long v, double w) {
-            this.u = u;
-            this.v = v;
-            this.w = w;
+        Run(long[] keys, double[] weights, int size, long maxVertexId, int arcs) {
+            this.keys = keys;
+            this.weights = weights;
+            this.size = size;
+            this.maxVertexId = maxVertexId;
+            this.arcs = arcs;
         }
     }
 
+    /** Merge input: a sorted run in memory or on disk. */
+    private interface Cursor {
+        boolean advance() throws IOException;
+        long key();
+        double weight();
+    }
+
     public static void main(String[] args) throws Exception {
         String in = null, out = null;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        long memoryMb = 1024;
         for (int i = 0; i < args.length; i++) {
             if ("--input".equals(args[i]) && i + 1 < args.length) in = args[++i];
             else if ("--output".equals(args[i]) && i + 1 < args.length) out = args[++i];
+            else if ("--threads".equals(args[i]) && i + 1 < args.length) threads = Integer.parseInt(args[++i]);
+            else if ("--memory-mb".equals(args[i]) && i + 1 < args.length) memoryMb = Long.parseLong(args[++i]);
         }
         if (in == null || out == null) {
-            System.err.println("Usage: java ... GrToMtx --input graph.gr --output graph.mtx");
+            System.err.println("Usage: java ... GrToMtx --input graph.gr --output graph.mtx [--threads N] [--memory-mb MB]");
             System.exit(2);
         }
 
-        Map<String, Double> uniqueEdges = new HashMap<>();
+        long t0 = System.nanoTime();
+        long budgetBytes = Math.max(1L << 20, memoryMb * 1024 * 1024);
+        // chunks in flight count against the budget too; at least one is always read ahead
+        int maxPending = (int) Math.max(1, Math.min(threads * 2L, budgetBytes / 2 / IN_FLIGHT_BYTES));
+        File spillDir = new File(out).getAbsoluteFile().getParentFile();
+
+        List<Run> inMemory = new ArrayList<>();
+        List<File> spilled = new ArrayList<>();
+        long bufferedBytes = 0;
+        long arcs = 0;
         long maxVertexId = 0;
 
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(in), StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty() || line.startsWith("c") || line.startsWith("p")) continue;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (InputStream is = new FileInputStream(in)) {
+            ArrayDeque<Future<Run>> pending = new ArrayDeque<>();
+            byte[] carry = new byte[0];
+            boolean eof = false;
+            while (!eof || !pending.isEmpty()) {
+                while (!eof && pending.size() < maxPending) {
+                    byte[] chunk = new byte[carry.length + CHUNK_BYTES];
+                    System.arraycopy(carry, 0, chunk, 0, carry.length);
+                    int len = carry.length;
+                    int n;
+                    while (len < chunk.length && (n = is.read(chunk, len, chunk.length - len)) > 0) len += n;
+                    eof = len < chunk.length;
 
-                if (line.startsWith("a")) {
-                    String[] toks = line.split("\\s+");
-                    if (toks.length >= 4) {
-                        long u = Long.parseLong(toks[1]);
-                        long v = Long.parseLong(toks[2]);
-                        double w = Double.parseDouble(toks[3]);
+                    int cut = len;
+                    if (!eof) {
+                        while (cut > 0 && chunk[cut - 1] != '\n') cut--;
+                        if (cut == 0) throw new IOException("Line longer than " + CHUNK_BYTES + " bytes in " + in);
+                    }
+                    carry = java.util.Arrays.copyOfRange(chunk, cut, len);
+                    final byte[] data = chunk;
+                    final int dataLen = cut;
+                    pending.add(pool.submit(() -> parseChunk(data, dataLen)));
+                }
 
-                        if (u == v) continue; 
+                Run run = pending.poll().get();
+                arcs += run.arcs;
+                maxVertexId = Math.max(maxVertexId, run.maxVertexId);
+                inMemory.add(run);
+                bufferedBytes += (long) run.keys.length * ENTRY_BYTES;
+                if (bufferedBytes + pending.size() * IN_FLIGHT_BYTES > budgetBytes) {
+                    spilled.add(spill(inMemory, spillDir));
+                    inMemory.clear();
+                    bufferedBytes = 0;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
 
-                        if (u > maxVertexId) maxVertexId = u;
-                        if (v > maxVertexId) maxVertexId = v;
+        long unique = writeMtx(out, maxVertexId, inMemory, spilled);
+        for (File f : spilled) f.delete();
 
-                        long min = Math.min(u, v);
-                        long max = Math.max(u, v);
-                        String key = min + "_" + max;
+        double secs = (System.nanoTime() - t0) / 1e9;
+        System.out.println("Converted " + in + " -> " + out + " (Vertices: " + maxVertexId + ", Unique Edges: " + unique + ")");
+        System.out.printf("Parsed %d arcs in %.3f s (%.0f edges/s), %d spilled runs%n", arcs, secs, arcs / secs, spilled.size());
+    }
 
-                        uniqueEdges.put(key, w);
-                    }
-                }
+    /** Parses the {@code a u v w} lines of one chunk into a sorted, deduplicated run. */
+    static Run parseChunk(byte[] data, int len) throws IOException {
+        long[] keys = new long[Math.max(16, len / 16)];
+        double[] weights = new double[keys.length];
+        int n = 0;
+        int arcs = 0;
+        long maxVertexId = 0;
+
+        LineTokenizer tokens = new LineTokenizer();
+        int lineStart = 0;
+        while (lineStart < len) {
+            int lineEnd = lineStart;
+            while (lineEnd < len && data[lineEnd] != '\n') lineEnd++;
+            tokens.reset(data, lineStart, lineEnd);
+            lineStart = lineEnd + 1;
+
+            if (tokens.peek() != 'a') continue;
+            tokens.skipToken();
+            long u = tokens.nextLong();
+            long v = tokens.nextLong();
+            double w = tokens.nextDouble();
+            arcs++;
+            if (u == v) continue;
+            if (u < 0 || v < 0 || u > 0xFFFFFFFFL || v > 0xFFFFFFFFL) {
+                throw new IOException("Vertex id out of 32-bit range: " + u + " " + v);
             }
+
+            if (u > maxVertexId) maxVertexId = u;
+            if (v > maxVertexId) maxVertexId = v;
+
+            if (n == keys.length) {
+                keys = java.util.Arrays.copyOf(keys, n * 2);
+                weights = java.util.Arrays.copyOf(weights, n * 2);
+            }
+            keys[n] = pack(Math.min(u, v), Math.max(u, v));
+            weights[n] = w;
+            n++;
         }
 
-        try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(out), StandardCharsets.UTF_8))) {
-            bw.write("%%MatrixMarket matrix coordinate real symmetric");
-            bw.newLine();
+        sort(keys, weights, 0, n);
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            if (m > 0 && keys[m - 1] == keys[i]) {
+                if (weights[i] < weights[m - 1]) weights[m - 1] = weights[i];
+            } else {
+                keys[m] = keys[i];
+                weights[m] = weights[i];
+                m++;
+            }
+        }
+        return new Run(keys, weights, m, maxVertexId, arcs);
+    }
 
-            bw.write(maxVertexId + " " + maxVertexId + " " + uniqueEdges.size());
-            bw.newLine();
+    private static File spill(List<Run> runs, File dir) throws IOException {
+        File f = File.createTempFile("grtomtx-", ".run", dir);
+        f.deleteOnExit();
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), 1 << 16))) {
+            merge(memoryCursors(runs), (key, w) -> {
+                dos.writeLong(key);
+                dos.writeDouble(w);
+            });
+        }
+        return f;
+    }
 
-            for (Map.Entry<String, Double> entry : uniqueEdges.entrySet()) {
-                String[] parts = entry.getKey().split("_");
-                long u = Long.parseLong(parts[0]);
-                long v = Long.parseLong(parts[1]);
-                double w = entry.getValue();
+    private static long writeMtx(String out, long maxVertexId, List<Run> inMemory, List<File> spilled) throws IOException {
+        List<Cursor> cursors = memoryCursors(inMemory);
+        List<DataInputStream> streams = new ArrayList<>();
+        try {
+            for (File f : spilled) {
+                DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(f), 1 << 16));
+                streams.add(dis);
+                cursors.add(fileCursor(dis));
+            }
 
-                bw.write(v + " " + u + " " + w);
+            // the size line is written as a fixed-width placeholder and patched once the count is known
+            String placeholder = String.format("%-60s", "");
+            long[] unique = {0};
+            try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(out), StandardCharsets.UTF_8), 1 << 16)) {
+                bw.write("%%MatrixMarket matrix coordinate real symmetric");
                 bw.newLine();
+                bw.write(placeholder);
+                bw.newLine();
+
+                merge(cursors, (key, w) -> {
+                    long u = (key ^ SIGN) >>> 32;
+                    long v = key & 0xFFFFFFFFL;
+                    bw.write(v + " " + u + " " + w);
+                    bw.newLine();
+                    unique[0]++;
+                });
+            }
+
+            try (RandomAccessFile raf = new RandomAccessFile(out, "rw")) {
+                raf.seek("%%MatrixMarket matrix coordinate real symmetric".length() + System.lineSeparator().length());
+                String size = maxVertexId + " " + maxVertexId + " " + unique[0];
+                raf.write(String.format("%-60s", size).getBytes(StandardCharsets.US_ASCII));
+            }
+            return unique[0];
+        } finally {
+            for (DataInputStream dis : streams) dis.close();
+        }
+    }
+
+    /** Key of edge {@code (a, b)}, {@code a <= b < 2^32}; signed order of keys is (a, b) order. */
+    static long pack(long a, long b) {
+        return ((a << 32) | b) ^ SIGN;
+    }
+
+    private interface EdgeSink {
+        void accept(long key, double w) throws IOException;
+    }
+
+    /** K-way merge of sorted runs; equal keys across runs collapse to the smallest weight. */
+    private static void merge(List<Cursor> cursors, EdgeSink sink) throws IOException {
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Math.max(1, cursors.size()),
+                (a, b) -> Long.compare(a.key(), b.key()));
+        for (Cursor c : cursors) {
+            if (c.advance()) heap.add(c);
+        }
+        while (!heap.isEmpty()) {
+            Cursor c = heap.poll();
+            long key = c.key();
+            double w = c.weight();
+            if (c.advance()) heap.add(c);
+            while (!heap.isEmpty() && heap.peek().key() == key) {
+                Cursor d = heap.poll();
+                if (d.weight() < w) w = d.weight();
+                if (d.advance()) heap.add(d);
             }
+            sink.accept(key, w);
         }
+    }
+
+    private static List<Cursor> memoryCursors(List<Run> runs) {
+        List<Cursor> cursors = new ArrayList<>();
+        for (Run run : runs) {
+            cursors.add(new Cursor() {
+                private int i = -1;
+
+                @Override
+                public boolean advance() {
+                    return ++i < run.size;
+                }
+
+                @Override
+                public long key() {
+                    return run.keys[i];
+                }
+
+                @Override
+                public double weight() {
+                    return run.weights[i];
+                }
+            });
+        }
+        return cursors;
+    }
+
+    private static Cursor fileCursor(DataInputStream dis) {
+        return new Cursor() {
+            private long key;
+            private double weight;
+
+            @Override
+            public boolean advance() throws IOException {
+                try {
+                    key = dis.readLong();
+                } catch (EOFException e) {
+                    return false;
+                }
+                weight = dis.readDouble();
+                return true;
+            }
+
+            @Override
+            public long key() {
+                return key;
+            }
+
+            @Override
+            public double weight() {
+                return weight;
+            }
+        };
+    }
+
+    /** Sorts {@code keys[from, to)} ascending, moving {@code weights} along. */
+    private static void sort(long[] keys, double[] weights, int from, int to) {
+        while (to - from > 16) {
+            long pivot = median(keys[from], keys[(from + to) >>> 1], keys[to - 1]);
+            int i = from, j = to - 1;
+            while (i <= j) {
+                while (keys[i] < pivot) i++;
+                while (keys[j] > pivot) j--;
+                if (i <= j) {
+                    swap(keys, weights, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            // recurse into the smaller half, loop on the larger one
+            if (j - from < to - i) {
+                sort(keys, weights, from, j + 1);
+                from = i;
+            } else {
+                sort(keys, weights, i, to);
+                to = j + 1;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            for (int j = i; j > from && keys[j - 1] > keys[j]; j--) swap(keys, weights, j, j - 1);
+        }
+    }
+
+    private static long median(long a, long b, long c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
 
-        System.out.println("Converted " + in + " -> " + out + " (Vertices: " + maxVertexId + ", Unique Edges: " + uniqueEdges.size() + ")");
+    private static void swap(long[] keys, double[] weights, int i, int j) {
+        long k = keys[i]; keys[i] = keys[j]; keys[j] = k;
+        double w = weights[i]; weights[i] = weights[j]; weights[j] = w;
     }
 }
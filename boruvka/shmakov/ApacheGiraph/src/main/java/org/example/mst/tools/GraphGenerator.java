@@ -0,0 +1,457 @@
+package org.example.mst.tools;
+
+import org.example.mst.input.BinaryEdgeInputFormat;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Synthetic graphs for scaling runs, written straight in one of the job's input formats.
+ * <ul>
+ *   <li>{@code grid}: road-like 2D grid, 4-neighbour edges kept with probability degree / 4,
+ *       plus both diagonals with probability (degree - 4) / 4 when the degree asks for more than 4
+ *       (at most 8);</li>
+ *   <li>{@code rmat}: R-MAT / Kronecker edges with the Graph500 probabilities (0.57, 0.19, 0.19),
+ *       vertex ids scrambled so hubs are not all at the low ids;</li>
+ *   <li>{@code geometric}: random geometric graph on a grid of cells with a fixed number of
+ *       points each, connecting points closer than the radius that gives the requested degree.</li>
+ * </ul>
+ * The work is cut into fixed chunks, each with its own seeded generator, so the output depends on
+ * the seed only and not on the thread count. Chunks are generated in parallel into byte buffers
+ * and appended in order; at most a few chunks per thread are in memory at any time.
+ */
+public class GraphGenerator {
+
+    /** Undirected edges per chunk, roughly. */
+    private static final int CHUNK_EDGES = 1 << 18;
+    private static final String MTX_BANNER = "%%MatrixMarket matrix coordinate real symmetric";
+    private static final String MTX_SIZE_PLACEHOLDER = String.format("%-60s", "");
+
+    enum Format { EDGELIST, MTX, BEDGES }
+
+    enum Weights { UNIFORM, INT, EXP, DISTANCE }
+
+    /** A graph family: a fixed number of chunks, each generated independently. */
+    interface Shape {
+        long vertices();
+
+        long chunks();
+
+        void generate(long chunk, SplitMix rnd, Chunk out);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String type = null, out = null;
+        long vertices = 1_000_000;
+        double degree = 4.0;
+        String weights = "uniform";
+        double maxWeight = 1000.0;
+        long seed = 1;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        for (int i = 0; i < args.length; i++) {
+            if ("--type".equals(args[i]) && i + 1 < args.length) type = args[++i];
+            else if ("--output".equals(args[i]) && i + 1 < args.length) out = args[++i];
+            else if ("--vertices".equals(args[i]) && i + 1 < args.length) vertices = Long.parseLong(args[++i]);
+            else if ("--degree".equals(args[i]) && i + 1 < args.length) degree = Double.parseDouble(args[++i]);
+            else if ("--weights".equals(args[i]) && i + 1 < args.length) weights = args[++i];
+            else if ("--max-weight".equals(args[i]) && i + 1 < args.length) maxWeight = Double.parseDouble(args[++i]);
+            else if ("--seed".equals(args[i]) && i + 1 < args.length) seed = Long.parseLong(args[++i]);
+            else if ("--threads".equals(args[i]) && i + 1 < args.length) threads = Integer.parseInt(args[++i]);
+        }
+        if (type == null || out == null) {
+            System.err.println("Usage: java ... GraphGenerator --type grid|rmat|geometric --output graph.edgelist|graph.mtx|graph.bedges" +
+                    " [--vertices N] [--degree D] [--weights uniform|int|exp|distance] [--max-weight W] [--seed S] [--threads N]");
+            System.exit(2);
+        }
+
+        Format format = out.endsWith(".mtx") ? Format.MTX : out.endsWith(".bedges") ? Format.BEDGES : Format.EDGELIST;
+        Weights w = Weights.valueOf(weights.toUpperCase(Locale.ROOT));
+        Shape shape;
+        switch (type) {
+            case "grid":
+                shape = new Grid(vertices, degree);
+                break;
+            case "rmat":
+                shape = new RMat(vertices, degree);
+                break;
+            case "geometric":
+                shape = new Geometric(vertices, degree, seed);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown graph type: " + type);
+        }
+        if (w == Weights.DISTANCE && !(shape instanceof Geometric)) {
+            throw new IllegalArgumentException("--weights distance needs --type geometric");
+        }
+
+        long t0 = System.nanoTime();
+        long edges = write(shape, format, w, maxWeight, seed, threads, out);
+        double secs = (System.nanoTime() - t0) / 1e9;
+        System.out.println("Generated " + type + " -> " + out + " (Vertices: " + shape.vertices() + ", Undirected edges: " + edges + ")");
+        System.out.printf("%.3f s (%.0f edges/s)%n", secs, edges / secs);
+    }
+
+    private static long write(Shape shape, Format format, Weights weights, double maxWeight, long seed,
+                              int threads, String out) throws Exception {
+        long edges = 0;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(out), 1 << 16)) {
+            if (format == Format.MTX) {
+                os.write((MTX_BANNER + "\n" + MTX_SIZE_PLACEHOLDER + "\n").getBytes(StandardCharsets.US_ASCII));
+            } else if (format == Format.BEDGES) {
+                DataOutputStream dos = new DataOutputStream(os);
+                dos.writeInt(BinaryEdgeInputFormat.MAGIC);
+                dos.writeInt(BinaryEdgeInputFormat.VERSION);
+                dos.writeLong(0L); // patched below
+            }
+
+            ArrayDeque<Future<Chunk>> pending = new ArrayDeque<>();
+            long next = 0;
+            while (next < shape.chunks() || !pending.isEmpty()) {
+                while (next < shape.chunks() && pending.size() < threads * 2) {
+                    final long chunk = next++;
+                    pending.add(pool.submit(() -> {
+                        Chunk c = new Chunk(format, weights, maxWeight);
+                        shape.generate(chunk, new SplitMix(SplitMix.mix(seed, chunk)), c);
+                        return c;
+                    }));
+                }
+                Chunk c = pending.poll().get();
+                os.write(c.buf, 0, c.len);
+                edges += c.edges;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        if (format == Format.MTX) {
+            try (RandomAccessFile raf = new RandomAccessFile(out, "rw")) {
+                raf.seek(MTX_BANNER.length() + 1);
+                String size = shape.vertices() + " " + shape.vertices() + " " + edges;
+                raf.write(String.format("%-60s", size).getBytes(StandardCharsets.US_ASCII));
+            }
+        } else if (format == Format.BEDGES) {
+            try (RandomAccessFile raf = new RandomAccessFile(out, "rw")) {
+                raf.seek(8);
+                raf.writeLong(edges * 2);
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * One chunk's edges, encoded in the output format: both directions for {@code .edgelist} and
+     * {@code .bedges}, once for the symmetric {@code .mtx}. Real weights are rounded to 6 decimals
+     * before encoding, so text and binary outputs of the same seed hold the same values.
+     */
+    static final class Chunk {
+        private final Format format;
+        private final Weights weights;
+        private final double maxWeight;
+        byte[] buf = new byte[1 << 16];
+        int len;
+        long edges;
+
+        Chunk(Format format, Weights weights, double maxWeight) {
+            this.format = format;
+            this.weights = weights;
+            this.maxWeight = maxWeight;
+        }
+
+        /** Adds edge (u, v); {@code distance} is only used by the distance weights. */
+        void add(long u, long v, SplitMix rnd, double distance) {
+            long micros;
+            switch (weights) {
+                case INT:
+                    micros = (1 + (long) (rnd.nextDouble() * maxWeight)) * 1_000_000L;
+                    break;
+                case EXP:
+                    micros = Math.round(-Math.log(1.0 - rnd.nextDouble()) * maxWeight * 1e6);
+                    break;
+                case DISTANCE:
+                    micros = Math.round(distance * maxWeight * 1e6);
+                    break;
+                default:
+                    micros = Math.round(rnd.nextDouble() * maxWeight * 1e6);
+            }
+
+            ensure(160);
+            switch (format) {
+                case MTX:
+                    line(Math.max(u, v), Math.min(u, v), micros);
+                    break;
+                case EDGELIST:
+                    line(u, v, micros);
+                    line(v, u, micros);
+                    break;
+                default:
+                    double w = micros / 1e6;
+                    record(u, v, w);
+                    record(v, u, w);
+            }
+            edges++;
+        }
+
+        private void line(long u, long v, long micros) {
+            digits(u);
+            buf[len++] = ' ';
+            digits(v);
+            buf[len++] = ' ';
+            digits(micros / 1_000_000L);
+            long frac = micros % 1_000_000L;
+            if (weights != Weights.INT) {
+                buf[len++] = '.';
+                for (long p = 100_000L; p > 0; p /= 10) buf[len++] = (byte) ('0' + frac / p % 10);
+            }
+            buf[len++] = '\n';
+        }
+
+        private void digits(long x) {
+            int start = len;
+            do {
+                buf[len++] = (byte) ('0' + x % 10);
+                x /= 10;
+            } while (x != 0);
+            for (int i = start, j = len - 1; i < j; i++, j--) {
+                byte t = buf[i]; buf[i] = buf[j]; buf[j] = t;
+            }
+        }
+
+        private void record(long u, long v, double w) {
+            putLong(u);
+            putLong(v);
+            putLong(Double.doubleToLongBits(w));
+        }
+
+        private void putLong(long x) {
+            for (int s = 56; s >= 0; s -= 8) buf[len++] = (byte) (x >>> s);
+        }
+
+        private void ensure(int bytes) {
+            if (len + bytes > buf.length) buf = java.util.Arrays.copyOf(buf, Math.max(buf.length * 2, len + bytes));
+        }
+    }
+
+    /** Road-like grid, vertex (r, c) has id {@code r * side + c + 1}. */
+    static final class Grid implements Shape {
+        private final long side;
+        private final double keep;
+        private final double diagonal;
+        private final long rowsPerChunk;
+
+        Grid(long vertices, double degree) {
+            side = Math.max(2, (long) Math.ceil(Math.sqrt(vertices)));
+            keep = Math.min(1.0, degree / 4.0);
+            // every interior vertex has four diagonal neighbours: 4 + 4 * diagonal = degree
+            diagonal = Math.max(0.0, Math.min(1.0, (degree - 4.0) / 4.0));
+            rowsPerChunk = Math.max(1, CHUNK_EDGES / (2 * side));
+        }
+
+        @Override
+        public long vertices() {
+            return side * side;
+        }
+
+        @Override
+        public long chunks() {
+            return (side + rowsPerChunk - 1) / rowsPerChunk;
+        }
+
+        @Override
+        public void generate(long chunk, SplitMix rnd, Chunk out) {
+            long rowEnd = Math.min(side, (chunk + 1) * rowsPerChunk);
+            for (long r = chunk * rowsPerChunk; r < rowEnd; r++) {
+                for (long c = 0; c < side; c++) {
+                    long id = r * side + c + 1;
+                    if (c + 1 < side && rnd.nextDouble() < keep) out.add(id, id + 1, rnd, 0);
+                    if (r + 1 < side && rnd.nextDouble() < keep) out.add(id, id + side, rnd, 0);
+                    if (c + 1 < side && r + 1 < side && rnd.nextDouble() < diagonal) out.add(id, id + side + 1, rnd, 0);
+                    // no draw up to degree 4, so those grids stay the same for a seed
+                    if (diagonal > 0 && c + 1 < side && r + 1 < side && rnd.nextDouble() < diagonal) {
+                        out.add(id + 1, id + side, rnd, 0);
+                    }
+                }
+            }
+        }
+    }
+
+    /** R-MAT with {@code vertices * degree / 2} edge draws; self-loops are dropped. */
+    static final class RMat implements Shape {
+        private static final double A = 0.57, B = 0.19, C = 0.19;
+
+        private final int scale;
+        private final long draws;
+
+        RMat(long vertices, double degree) {
+            scale = Math.max(1, 64 - Long.numberOfLeadingZeros(Math.max(1, vertices - 1)));
+            draws = (long) ((1L << scale) * degree / 2);
+        }
+
+        @Override
+        public long vertices() {
+            return 1L << scale;
+        }
+
+        @Override
+        public long chunks() {
+            return (draws + CHUNK_EDGES - 1) / CHUNK_EDGES;
+        }
+
+        @Override
+        public void generate(long chunk, SplitMix rnd, Chunk out) {
+            long end = Math.min(draws, (chunk + 1) * CHUNK_EDGES);
+            for (long e = chunk * CHUNK_EDGES; e < end; e++) {
+                long u = 0, v = 0;
+                for (int bit = 0; bit < scale; bit++) {
+                    double p = rnd.nextDouble();
+                    u <<= 1;
+                    v <<= 1;
+                    if (p < A) continue;
+                    if (p < A + B) v |= 1;
+                    else if (p < A + B + C) u |= 1;
+                    else { u |= 1; v |= 1; }
+                }
+                if (u == v) continue;
+                out.add(scramble(u) + 1, scramble(v) + 1, rnd, 0);
+            }
+        }
+
+        /** Bijection on [0, 2^scale): odd multiplier, then xor. */
+        private long scramble(long x) {
+            long mask = (1L << scale) - 1;
+            return ((x * 0x9E3779B97F4A7C15L) ^ 0x5DEECE66DL) & mask;
+        }
+    }
+
+    /**
+     * Random geometric graph. The unit cells of a {@code side x side} grid hold {@code perCell}
+     * points each, placed by hashing (seed, cell, index), so any cell can be regenerated without
+     * storing coordinates. Point i of cell k has id {@code k * perCell + i + 1}. The radius is at
+     * most one cell, so only the cell itself and its forward neighbours need to be checked.
+     */
+    static final class Geometric implements Shape {
+        private static final long[][] FORWARD = {{1, 0}, {-1, 1}, {0, 1}, {1, 1}};
+
+        private final long seed;
+        private final int perCell;
+        private final long side;
+        private final double radius;
+        private final long rowsPerChunk;
+
+        Geometric(long vertices, double degree, long seed) {
+            this.seed = seed;
+            perCell = Math.max(1, (int) Math.ceil((degree - 13.0 / 6) / Math.PI + 1));
+            side = Math.max(1, (long) Math.ceil(Math.sqrt((double) vertices / perCell)));
+            double lo = 0, hi = 1;
+            for (int i = 0; i < 60; i++) {
+                double mid = (lo + hi) / 2;
+                if (expectedDegree(mid) < degree) lo = mid;
+                else hi = mid;
+            }
+            radius = lo;
+            rowsPerChunk = Math.max(1, (long) (CHUNK_EDGES / (side * Math.max(1.0, degree / 2))));
+        }
+
+        /**
+         * Every cell holds exactly {@code perCell} points, so a point has {@code perCell - 1}
+         * neighbours in its own cell instead of {@code perCell} on average: its degree is
+         * {@code perCell * pi r^2} minus the chance that another point of the same unit square
+         * is within r, {@code pi r^2 - 8/3 r^3 + r^4 / 2} for r <= 1.
+         */
+        private double expectedDegree(double r) {
+            return (perCell - 1) * Math.PI * r * r + 8.0 / 3 * r * r * r - r * r * r * r / 2;
+        }
+
+        @Override
+        public long vertices() {
+            return side * side * perCell;
+        }
+
+        @Override
+        public long chunks() {
+            return (side + rowsPerChunk - 1) / rowsPerChunk;
+        }
+
+        @Override
+        public void generate(long chunk, SplitMix rnd, Chunk out) {
+            double[] x = new double[perCell], y = new double[perCell];
+            double[] nx = new double[perCell], ny = new double[perCell];
+            double r2 = radius * radius;
+            long rowEnd = Math.min(side, (chunk + 1) * rowsPerChunk);
+            for (long cy = chunk * rowsPerChunk; cy < rowEnd; cy++) {
+                for (long cx = 0; cx < side; cx++) {
+                    long cell = cy * side + cx;
+                    points(cell, cx, cy, x, y);
+                    for (int i = 0; i < perCell; i++) {
+                        for (int j = i + 1; j < perCell; j++) {
+                            connect(cell, i, x[i], y[i], cell, j, x[j], y[j], r2, rnd, out);
+                        }
+                    }
+                    for (long[] d : FORWARD) {
+                        long ox = cx + d[0], oy = cy + d[1];
+                        if (ox < 0 || ox >= side || oy >= side) continue;
+                        long other = oy * side + ox;
+                        points(other, ox, oy, nx, ny);
+                        for (int i = 0; i < perCell; i++) {
+                            for (int j = 0; j < perCell; j++) {
+                                connect(cell, i, x[i], y[i], other, j, nx[j], ny[j], r2, rnd, out);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        private void connect(long cellA, int i, double xa, double ya, long cellB, int j, double xb, double yb,
+                             double r2, SplitMix rnd, Chunk out) {
+            double dx = xa - xb, dy = ya - yb;
+            double d2 = dx * dx + dy * dy;
+            if (d2 > r2) return;
+            out.add(cellA * perCell + i + 1, cellB * perCell + j + 1, rnd, Math.sqrt(d2) / side);
+        }
+
+        private void points(long cell, long cx, long cy, double[] x, double[] y) {
+            for (int i = 0; i < perCell; i++) {
+                long h = SplitMix.mix(SplitMix.mix(seed, cell), i);
+                x[i] = cx + SplitMix.toUnit(h);
+                y[i] = cy + SplitMix.toUnit(SplitMix.mix(h, 1));
+            }
+        }
+    }
+
+    /** SplitMix64: tiny, fast, and reseedable per chunk or per cell without allocating. */
+    static final class SplitMix {
+        private long state;
+
+        SplitMix(long seed) {
+            state = seed;
+        }
+
+        long nextLong() {
+            return finish(state += 0x9E3779B97F4A7C15L);
+        }
+
+        double nextDouble() {
+            return toUnit(nextLong());
+        }
+
+        static long mix(long a, long b) {
+            return finish(a * 0x9E3779B97F4A7C15L + b + 0x632BE59BD9B4E019L);
+        }
+
+        static double toUnit(long h) {
+            return (h >>> 11) * 0x1.0p-53;
+        }
+
+        private static long finish(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package org.example.mst.tools;
+
+import it.unimi.dsi.fastutil.Arrays;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.example.mst.input.EdgeFileReader;
+import org.example.mst.shared.CsrGraph;
+import org.example.mst.shared.SharedMemoryBoruvka;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks an {@code --output} directory against its input: the part files must form a spanning
+ * forest of the input (no unknown vertex, no cycle, one edge fewer than vertices per connected
+ * component), every edge must carry the lightest input weight between its endpoints, and the
+ * edge weights must add up to the shared engine's MST weight on the same input and, with
+ * {@code --mst-weight}, to the {@code MST_WEIGHT} the job printed. Together this proves the
+ * output is a minimum spanning forest. Compact runs round weights to float; {@code --float}
+ * compares edge weights after the same rounding and sums with a float tolerance.
+ * Exits with 1 on the first violated check.
+ */
+public class MstOutputCheck {
+    public static void main(String[] args) throws Exception {
+        String input = null, mst = null;
+        Double jobWeight = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean asFloat = false;
+        for (int i = 0; i < args.length; i++) {
+            if ("--input".equals(args[i]) && i + 1 < args.length) input = args[++i];
+            else if ("--mst".equals(args[i]) && i + 1 < args.length) mst = args[++i];
+            else if ("--mst-weight".equals(args[i]) && i + 1 < args.length) jobWeight = Double.parseDouble(args[++i]);
+            else if ("--threads".equals(args[i]) && i + 1 < args.length) threads = Integer.parseInt(args[++i]);
+            else if ("--float".equals(args[i])) asFloat = true;
+        }
+        if (input == null || mst == null) {
+            System.err.println("Usage: java ... MstOutputCheck --input graph.edgelist|graph.mtx|graph.gr|graph.bedges"
+                    + " --mst /tmp/mst-out [--mst-weight W] [--threads N] [--float]");
+            System.exit(2);
+        }
+        String error = check(input, mst, jobWeight, threads, asFloat);
+        if (error != null) {
+            System.out.println("MST_CHECK failed: " + error);
+            System.exit(1);
+        }
+    }
+
+    /** Runs every check and prints a summary; returns the first violation, or null. */
+    public static String check(String input, String mst, Double jobWeight, int threads, boolean asFloat) throws Exception {
+        Forest out = Forest.read(mst);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        CsrGraph g;
+        double expected;
+        try {
+            g = CsrGraph.load(input, pool);
+            expected = new SharedMemoryBoruvka(g, pool).run();
+        } finally {
+            pool.shutdown();
+        }
+
+        int n = g.vertexCount();
+        int[] parent = new int[n];
+        for (int v = 0; v < n; v++) parent[v] = v;
+        int components = n;
+        for (int v = 0; v < n; v++) {
+            for (int k = 0; k < g.degree(v); k++) {
+                if (union(parent, v, g.neighbour(v, k))) components--;
+            }
+        }
+
+        for (int v = 0; v < n; v++) parent[v] = v;
+        for (int i = 0; i < out.size(); i++) {
+            int a = index(g, out.a.getLong(i));
+            int b = index(g, out.b.getLong(i));
+            if (a < 0 || b < 0) return "edge " + out.describe(i) + " has a vertex the input does not have";
+            if (!union(parent, a, b)) return "edge " + out.describe(i) + " closes a cycle";
+        }
+        if (out.size() != n - components) {
+            return out.size() + " edges, but a spanning forest of " + n + " vertices in " + components
+                    + " components has " + (n - components);
+        }
+
+        double[] lightest = out.lightestInputWeights(input);
+        double sum = 0;
+        for (int i = 0; i < out.size(); i++) {
+            double w = out.w.getDouble(i);
+            if (Double.isNaN(lightest[i])) return "edge " + out.describe(i) + " is not in the input";
+            if (w != lightest[i] && !(asFloat && w == (float) lightest[i])) {
+                return "edge " + out.describe(i) + " has weight " + w + ", the lightest input edge " + lightest[i];
+            }
+            sum += w;
+        }
+
+        System.out.printf("MST_CHECK edges=%d vertices=%d components=%d output_weight=%.6f reference_weight=%.6f%n",
+                out.size(), n, components, sum, expected);
+        double tolerance = asFloat ? 1e-6 : 1e-9;
+        if (!close(sum, expected, tolerance)) return "output weight " + sum + " differs from the reference " + expected;
+        // the job prints MST_WEIGHT with six decimals
+        if (jobWeight != null && !close(sum, jobWeight, tolerance) && Math.abs(sum - jobWeight) > 5e-7) {
+            return "output weight " + sum + " differs from the job's MST_WEIGHT " + jobWeight;
+        }
+        return null;
+    }
+
+    private static boolean close(double x, double y, double relative) {
+        return Math.abs(x - y) <= relative * Math.max(1.0, Math.max(Math.abs(x), Math.abs(y)));
+    }
+
+    /** Compact index of an original id, or -1; {@link CsrGraph} ids are ascending. */
+    private static int index(CsrGraph g, long id) {
+        int lo = 0, hi = g.vertexCount() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long m = g.idAt(mid);
+            if (m < id) lo = mid + 1;
+            else if (m > id) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    /** Returns false if x and y were connected already. */
+    private static boolean union(int[] parent, int x, int y) {
+        int rx = find(parent, x), ry = find(parent, y);
+        if (rx == ry) return false;
+        parent[Math.max(rx, ry)] = Math.min(rx, ry);
+        return true;
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /** The edges of the part files, as (min, max) pairs sorted for lookup. */
+    private static final class Forest {
+        final LongArrayList a = new LongArrayList();
+        final LongArrayList b = new LongArrayList();
+        final DoubleArrayList w = new DoubleArrayList();
+
+        int size() {
+            return a.size();
+        }
+
+        String describe(int i) {
+            return a.getLong(i) + " " + b.getLong(i) + " " + w.getDouble(i);
+        }
+
+        static Forest read(String dir) throws IOException {
+            File[] parts = new File(dir).listFiles((d, name) -> name.startsWith("part-")
+                    && (name.endsWith(".txt") || name.endsWith(".bedges")));
+            if (parts == null) throw new IOException("No such directory " + dir);
+            Forest f = new Forest();
+            for (File part : parts) {
+                EdgeFileReader.read(part.getPath(), (u, v, weight) -> {
+                    f.a.add(Math.min(u, v));
+                    f.b.add(Math.max(u, v));
+                    f.w.add(weight);
+                });
+            }
+            Arrays.quickSort(0, f.size(), new AbstractIntComparator() {
+                @Override
+                public int compare(int i, int j) {
+                    int c = Long.compare(f.a.getLong(i), f.a.getLong(j));
+                    return c != 0 ? c : Long.compare(f.b.getLong(i), f.b.getLong(j));
+                }
+            }, (i, j) -> {
+                f.a.set(i, f.a.set(j, f.a.getLong(i)));
+                f.b.set(i, f.b.set(j, f.b.getLong(i)));
+                f.w.set(i, f.w.set(j, f.w.getDouble(i)));
+            });
+            return f;
+        }
+
+        /** Per edge, the lightest weight between its endpoints in the input; NaN if there is none. */
+        double[] lightestInputWeights(String input) throws IOException {
+            double[] lightest = new double[size()];
+            java.util.Arrays.fill(lightest, Double.NaN);
+            EdgeFileReader.read(input, (u, v, weight) -> {
+                int i = indexOf(Math.min(u, v), Math.max(u, v));
+                if (i < 0) return;
+                if (Double.isNaN(lightest[i]) || weight < lightest[i]) lightest[i] = weight;
+            });
+            return lightest;
+        }
+
+        private int indexOf(long u, long v) {
+            int lo = 0, hi = size() - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int c = Long.compare(a.getLong(mid), u);
+                if (c == 0) c = Long.compare(b.getLong(mid), v);
+                if (c < 0) lo = mid + 1;
+                else if (c > 0) hi = mid - 1;
+                else return mid;
+            }
+            return -1;
+        }
+    }
+}
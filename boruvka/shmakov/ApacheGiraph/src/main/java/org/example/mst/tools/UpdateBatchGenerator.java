@@ -0,0 +1,131 @@
+package org.example.mst.tools;
+
+import org.example.mst.incremental.UpdateBatch;
+import org.example.mst.input.BinaryEdgeWriter;
+import org.example.mst.input.EdgeFileReader;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Random update batches for checking {@code --previous-mst} against a full recompute: a quarter
+ * deletions, a quarter weight changes (up or down by up to 50%) of existing edges, a quarter
+ * insertions between existing vertices and a quarter insertions that reach vertices new to the
+ * graph (half of them between two new vertices). With {@code --previous-mst} half of the
+ * deletions and weight changes hit edges of that forest, which are the ones the repair has to
+ * work for. Besides the batch it writes the updated graph as a {@code .bedges} file, which a full
+ * run takes as {@code --input}. Sampling is reservoirs over one pass of the input (and of the
+ * forest), so only the sampled edges are held in memory.
+ */
+public class UpdateBatchGenerator {
+    public static void main(String[] args) throws Exception {
+        String in = null, batchFile = null, updatedGraph = null, previousMst = null;
+        int count = 100;
+        long seed = 1;
+        for (int i = 0; i < args.length; i++) {
+            if ("--input".equals(args[i]) && i + 1 < args.length) in = args[++i];
+            else if ("--updates".equals(args[i]) && i + 1 < args.length) batchFile = args[++i];
+            else if ("--updated-graph".equals(args[i]) && i + 1 < args.length) updatedGraph = args[++i];
+            else if ("--previous-mst".equals(args[i]) && i + 1 < args.length) previousMst = args[++i];
+            else if ("--count".equals(args[i]) && i + 1 < args.length) count = Integer.parseInt(args[++i]);
+            else if ("--seed".equals(args[i]) && i + 1 < args.length) seed = Long.parseLong(args[++i]);
+        }
+        if (in == null || batchFile == null || updatedGraph == null || !updatedGraph.endsWith(".bedges")) {
+            System.err.println("Usage: java ... UpdateBatchGenerator --input graph.edgelist|graph.mtx|graph.gr|graph.bedges" +
+                    " --updates batch.txt --updated-graph updated.bedges [--previous-mst mst-dir] [--count N] [--seed S]");
+            System.exit(2);
+        }
+
+        writeBatch(in, previousMst, count, new Random(seed), batchFile);
+
+        UpdateBatch batch = UpdateBatch.read(batchFile);
+        long written;
+        try (BinaryEdgeWriter out = new BinaryEdgeWriter(updatedGraph)) {
+            batch.readUpdatedGraph(in, out::write);
+            written = out.edges();
+        }
+
+        System.out.println("Wrote " + batch.size() + " updates to " + batchFile + " and the updated graph to "
+                + updatedGraph + " (Directed edges: " + written + ")");
+    }
+
+    /**
+     * Writes {@code count} random updates of {@code in} to {@code batchFile}, see the class
+     * comment; {@code previousMst} is the forest to aim at, or null.
+     */
+    public static void writeBatch(String in, String previousMst, int count, Random rnd, String batchFile) throws IOException {
+        Sample sample = new Sample(count, rnd);
+        boolean symmetric = EdgeFileReader.isSymmetric(in);
+        EdgeFileReader.read(in, (u, v, w) -> {
+            if (u == v) return;
+            // directed formats list both directions, take each edge once
+            if (symmetric || u < v) sample.edge(u, v, w);
+        });
+        if (sample.seen == 0) throw new IOException(in + " has no edges");
+        Sample forest = null;
+        if (previousMst != null) {
+            forest = new Sample(count, rnd);
+            File[] parts = new File(previousMst).listFiles((dir, name) -> name.startsWith("part-")
+                    && (name.endsWith(".txt") || name.endsWith(".bedges")));
+            if (parts == null) throw new IOException("No such directory " + previousMst);
+            for (File part : parts) EdgeFileReader.read(part.getPath(), forest::edge);
+        }
+
+        int edges = (int) Math.min(sample.seen, sample.edgeA.length);
+        int forestEdges = forest == null ? 0 : (int) Math.min(forest.seen, forest.edgeA.length);
+        long newId = sample.maxId + 1;
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(batchFile), StandardCharsets.US_ASCII)))) {
+            out.printf("# %d updates of %s%s%n", count, in, previousMst == null ? "" : " aimed at " + previousMst);
+            for (int i = 0; i < count; i++) {
+                int kind = i % 4;
+                if (kind < 2) {
+                    boolean onForest = forestEdges > 0 && rnd.nextBoolean();
+                    Sample from = onForest ? forest : sample;
+                    int e = rnd.nextInt(onForest ? forestEdges : edges);
+                    if (kind == 0) out.printf("- %d %d%n", from.edgeA[e], from.edgeB[e]);
+                    else out.printf("+ %d %d %s%n", from.edgeA[e], from.edgeB[e], from.edgeW[e] * (0.5 + rnd.nextDouble()));
+                } else {
+                    long u = kind == 2 ? sample.vertices[rnd.nextInt(2 * edges)] : newId++;
+                    long v = kind == 3 && rnd.nextBoolean() ? newId++ : sample.vertices[rnd.nextInt(2 * edges)];
+                    if (u == v) continue;
+                    out.printf("+ %d %d %s%n", u, v, rnd.nextDouble() * sample.maxWeight);
+                }
+            }
+        }
+    }
+
+    /** Reservoir samples of edges and of edge endpoints. */
+    private static final class Sample {
+        final long[] edgeA;
+        final long[] edgeB;
+        final double[] edgeW;
+        final long[] vertices;
+        final Random rnd;
+        long seen;
+        double maxWeight;
+        long maxId = Long.MIN_VALUE;
+
+        Sample(int size, Random rnd) {
+            edgeA = new long[Math.max(1, size)];
+            edgeB = new long[edgeA.length];
+            edgeW = new double[edgeA.length];
+            vertices = new long[2 * edgeA.length];
+            this.rnd = rnd;
+        }
+
+        void edge(long u, long v, double w) {
+            maxWeight = Math.max(maxWeight, w);
+            maxId = Math.max(maxId, Math.max(u, v));
+            long slot = seen < edgeA.length ? seen : (long) (rnd.nextDouble() * (seen + 1));
+            seen++;
+            if (slot >= edgeA.length) return;
+            int i = (int) slot;
+            edgeA[i] = u;
+            edgeB[i] = v;
+            edgeW[i] = w;
+            vertices[2 * i] = u;
+            vertices[2 * i + 1] = v;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.mst.util;
+
+/**
+ * Primitive long -> long open-addressing map meant to be reused for every vertex
+ * a compute thread visits. {@link #clear()} is O(1): slots carry the generation
+ * they were written in, and bumping the generation invalidates all of them.
+ * Not thread-safe; one instance per Computation.
+ */
+public final class LongLongScratchMap {
+    private static final long MIX = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    private long[] values;
+    private int[] stamps;
+    private int mask;
+    private int shift;
+    private int generation = 1;
+    private int size;
+
+    public LongLongScratchMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /** Empties the map and makes sure it can take {@code expectedSize} keys without growing. */
+    public void clear(int expectedSize) {
+        int cap = capacityFor(expectedSize);
+        if (cap > keys.length) {
+            allocate(cap);
+        } else {
+            clear();
+        }
+    }
+
+    public void clear() {
+        size = 0;
+        if (++generation == 0) {
+            java.util.Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void put(long key, long value) {
+        int i = slot(key);
+        while (stamps[i] == generation) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        stamps[i] = generation;
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) grow();
+    }
+
+    public long get(long key, long missing) {
+        int i = slot(key);
+        while (stamps[i] == generation) {
+            if (keys[i] == key) return values[i];
+            i = (i + 1) & mask;
+        }
+        return missing;
+    }
+
+    /** Slot-wise iteration: {@code for (i < slotCount()) if (isSlotUsed(i)) keyAt(i), valueAt(i)}. */
+    public int slotCount() {
+        return keys.length;
+    }
+
+    public boolean isSlotUsed(int slot) {
+        return stamps[slot] == generation;
+    }
+
+    public long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    public long valueAt(int slot) {
+        return values[slot];
+    }
+
+    private int slot(long key) {
+        return (int) ((key * MIX) >>> shift);
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        int[] oldStamps = stamps;
+        int oldGeneration = generation;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldStamps[i] == oldGeneration) put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        stamps = new int[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        generation = 1;
+        size = 0;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int cap = 16;
+        while (cap < expectedSize * 2) cap <<= 1;
+        return cap;
+    }
+}
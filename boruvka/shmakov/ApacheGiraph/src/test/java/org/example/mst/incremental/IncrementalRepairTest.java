@@ -0,0 +1,293 @@
+package org.example.mst.incremental;
+
+import org.example.mst.input.EdgeFileReader;
+import org.example.mst.messages.MSTMessage;
+import org.example.mst.metrics.ComponentForest;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Chains random update batches through {@link IncrementalRepair#plan}, each on the previous
+ * batch's forest and updated graph, and compares every result with Kruskal on the updated graph.
+ * The job's part is stood in for by Kruskal over the job input with each kept piece joined up
+ * front, which is what seeding the pieces as components amounts to. The MST is unique in the
+ * {@link MSTMessage#lighter} order, so weights and edge sets must match exactly.
+ */
+public class IncrementalRepairTest {
+    private static final int GRAPHS = 40;
+    private static final int BATCHES = 6;
+
+    /** Few distinct weights, so that ties decide between many edges. */
+    private static final double[] WEIGHTS = {1.0, 2.0, 2.5, 4.0};
+
+    @Test
+    public void chainedBatchesMatchAFullRecompute() throws IOException {
+        for (int seed = 1; seed <= GRAPHS; seed++) {
+            File dir = Files.createTempDirectory("incremental-test-").toFile();
+            try {
+                checkChain(new Random(seed), dir);
+            } finally {
+                delete(dir);
+            }
+        }
+    }
+
+    private static void checkChain(Random rnd, File dir) throws IOException {
+        int n = 10 + rnd.nextInt(60);
+        // ids with gaps, so new vertices can land between existing ones too
+        long nextId = 3L * n;
+        Map<Pair, Double> graph = new HashMap<>();
+        File input = new File(dir, "graph-0.edgelist");
+        try (PrintWriter out = new PrintWriter(input, "US-ASCII")) {
+            for (int i = 2 * n + rnd.nextInt(2 * n); i > 0; i--) {
+                long u = 3L * rnd.nextInt(n), v = 3L * rnd.nextInt(n);
+                if (u == v) continue;
+                double w = weight(rnd);
+                // parallel copies stay in the file, the graph keeps the lightest
+                graph.merge(new Pair(u, v), w, Math::min);
+                out.printf("%d %d %s%n%d %d %s%n", u, v, w, v, u, w);
+            }
+        }
+        String previous = writeForest(kruskal(graph, new HashMap<>()), new File(dir, "mst-0"));
+
+        String current = input.getPath();
+        for (int b = 1; b <= BATCHES; b++) {
+            List<Edge> forest = readForest(previous);
+            UpdateBatch batch = new UpdateBatch();
+            nextId = randomBatch(rnd, graph, forest, nextId, batch);
+
+            String updated = new File(dir, "graph-" + b + ".bedges").getPath();
+            IncrementalRepair repair = IncrementalRepair.plan(current, previous, batch, dir, updated);
+            assertEquals("updated graph of batch " + b, graph, lightest(readEdges(updated)));
+
+            File out = new File(dir, "mst-" + b);
+            repair.writeKeptEdges(out.getPath(), false);
+            List<Edge> kept = readEdges(new File(out, IncrementalRepair.KEPT_PART + ".txt").getPath());
+            Map<Long, Long> pieces = new HashMap<>();
+            for (Edge e : kept) union(pieces, e.a, e.b);
+            List<Edge> joined = kruskal(lightest(readEdges(repair.jobInput())), pieces);
+            List<Edge> result = new ArrayList<>(kept);
+            result.addAll(joined);
+
+            List<Edge> expected = kruskal(graph, new HashMap<>());
+            assertEquals("weight after batch " + b, weight(expected), weight(result), 1e-9);
+            assertEquals("edges after batch " + b, sorted(expected), sorted(result));
+            assertEquals("kept weight after batch " + b, weight(kept), repair.baseWeight(), 1e-9);
+
+            // like the job's output: its own part file next to the kept edges
+            previous = writeForest(joined, out);
+            current = updated;
+            // pieces without a job vertex are reported as they are
+            Set<Long> jobVertices = new HashSet<>();
+            for (Edge e : readEdges(repair.jobInput())) {
+                jobVertices.add(e.a);
+                jobVertices.add(e.b);
+            }
+            Set<Long> jobComponents = new HashSet<>();
+            for (long v : jobVertices) jobComponents.add(find(pieces, v));
+            double untouchedWeight = 0;
+            for (Edge e : kept) {
+                if (!jobComponents.contains(find(pieces, e.a))) untouchedWeight += e.w;
+            }
+            ComponentForest untouched = SeedForest.load(repair.seedFile()).untouched();
+            assertEquals("components after batch " + b, components(graph), untouched.getComponents() + jobComponents.size());
+            assertEquals("untouched weight after batch " + b, untouchedWeight, untouched.getTotalWeight(), 1e-9);
+
+            repair.close();
+            assertFalse(new File(repair.jobInput()).exists());
+            assertFalse(new File(repair.seedFile()).exists());
+        }
+    }
+
+    /**
+     * Adds updates to {@code batch} and applies them to {@code graph}: deletions and reweights
+     * (up and down) of forest edges and of other edges, and insertions between existing vertices,
+     * to new vertices and between two new vertices. Returns the next unused vertex id.
+     */
+    private static long randomBatch(Random rnd, Map<Pair, Double> graph, List<Edge> forest, long nextId,
+                                    UpdateBatch batch) {
+        List<Pair> edges = new ArrayList<>(graph.keySet());
+        edges.sort(Comparator.comparingLong((Pair p) -> p.a).thenComparingLong(p -> p.b));
+        List<Long> vertices = new ArrayList<>();
+        for (Pair p : edges) {
+            vertices.add(p.a);
+            vertices.add(p.b);
+        }
+        for (int i = 1 + rnd.nextInt(8); i > 0; i--) {
+            int kind = rnd.nextInt(6);
+            Pair p;
+            if (kind <= 1 && !forest.isEmpty()) {
+                Edge e = forest.get(rnd.nextInt(forest.size()));
+                p = new Pair(e.a, e.b);
+            } else if (kind <= 3 && !edges.isEmpty()) {
+                p = edges.get(rnd.nextInt(edges.size()));
+            } else if (kind == 4 && !vertices.isEmpty()) {
+                p = new Pair(vertices.get(rnd.nextInt(vertices.size())), vertices.get(rnd.nextInt(vertices.size())));
+            } else {
+                long u = nextId++;
+                long v = vertices.isEmpty() || rnd.nextBoolean() ? nextId++ : vertices.get(rnd.nextInt(vertices.size()));
+                p = new Pair(u, v);
+            }
+            if (p.a == p.b) continue;
+            if ((kind == 0 || kind == 2) && graph.containsKey(p)) {
+                batch.delete(p.a, p.b);
+                graph.remove(p);
+            } else {
+                double w = weight(rnd);
+                batch.set(p.a, p.b, w);
+                graph.put(p, w);
+            }
+        }
+        return nextId;
+    }
+
+    private static double weight(Random rnd) {
+        return rnd.nextInt(3) == 0 ? rnd.nextDouble() * 5 : WEIGHTS[rnd.nextInt(WEIGHTS.length)];
+    }
+
+    /** Kruskal in the Boruvka edge order, on top of the components already in {@code joined}. */
+    private static List<Edge> kruskal(Map<Pair, Double> graph, Map<Long, Long> joined) {
+        List<Edge> edges = new ArrayList<>();
+        for (Map.Entry<Pair, Double> e : graph.entrySet()) edges.add(new Edge(e.getKey().a, e.getKey().b, e.getValue()));
+        edges.sort((x, y) -> MSTMessage.lighter(x.w, x.a, x.b, y.w, y.a, y.b) ? -1
+                : MSTMessage.lighter(y.w, y.a, y.b, x.w, x.a, x.b) ? 1 : 0);
+        List<Edge> forest = new ArrayList<>();
+        for (Edge e : edges) {
+            if (union(joined, e.a, e.b)) forest.add(e);
+        }
+        return forest;
+    }
+
+    private static long components(Map<Pair, Double> graph) {
+        Map<Long, Long> parent = new HashMap<>();
+        Set<Long> vertices = new HashSet<>();
+        for (Pair p : graph.keySet()) {
+            vertices.add(p.a);
+            vertices.add(p.b);
+            union(parent, p.a, p.b);
+        }
+        Set<Long> roots = new HashSet<>();
+        for (long v : vertices) roots.add(find(parent, v));
+        return roots.size();
+    }
+
+    private static boolean union(Map<Long, Long> parent, long a, long b) {
+        long ra = find(parent, a), rb = find(parent, b);
+        if (ra == rb) return false;
+        parent.put(ra, rb);
+        return true;
+    }
+
+    private static long find(Map<Long, Long> parent, long x) {
+        Long p;
+        while ((p = parent.get(x)) != null) x = p;
+        return x;
+    }
+
+    private static Map<Pair, Double> lightest(List<Edge> edges) {
+        Map<Pair, Double> graph = new HashMap<>();
+        for (Edge e : edges) graph.merge(new Pair(e.a, e.b), e.w, Math::min);
+        return graph;
+    }
+
+    private static List<Edge> readEdges(String path) throws IOException {
+        List<Edge> edges = new ArrayList<>();
+        EdgeFileReader.read(path, (u, v, w) -> edges.add(new Edge(Math.min(u, v), Math.max(u, v), w)));
+        return edges;
+    }
+
+    private static List<Edge> readForest(String dir) throws IOException {
+        List<Edge> edges = new ArrayList<>();
+        for (File part : new File(dir).listFiles((d, name) -> name.startsWith("part-"))) {
+            edges.addAll(readEdges(part.getPath()));
+        }
+        return edges;
+    }
+
+    private static String writeForest(List<Edge> forest, File dir) throws IOException {
+        dir.mkdirs();
+        File part = new File(dir, "part-m-00000.txt");
+        try (PrintWriter out = new PrintWriter(part, "US-ASCII")) {
+            for (Edge e : forest) out.println(e);
+        }
+        return dir.getPath();
+    }
+
+    private static double weight(List<Edge> forest) {
+        double w = 0;
+        for (Edge e : forest) w += e.w;
+        return w;
+    }
+
+    private static TreeSet<String> sorted(List<Edge> forest) {
+        TreeSet<String> set = new TreeSet<>();
+        for (Edge e : forest) set.add(e.toString());
+        return set;
+    }
+
+    private static void delete(File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File c : children) delete(c);
+        }
+        f.delete();
+    }
+
+    private static final class Edge {
+        final long a;
+        final long b;
+        final double w;
+
+        Edge(long a, long b, double w) {
+            this.a = a;
+            this.b = b;
+            this.w = w;
+        }
+
+        @Override
+        public String toString() {
+            return a + " " + b + " " + w;
+        }
+    }
+
+    private static final class Pair {
+        final long a;
+        final long b;
+
+        Pair(long u, long v) {
+            a = Math.min(u, v);
+            b = Math.max(u, v);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Pair && ((Pair) o).a == a && ((Pair) o).b == b;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(a * 0x9E3779B97F4A7C15L + b);
+        }
+
+        @Override
+        public String toString() {
+            return a + "-" + b;
+        }
+    }
+}
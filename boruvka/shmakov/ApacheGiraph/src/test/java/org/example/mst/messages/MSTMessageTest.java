@@ -0,0 +1,166 @@
+package org.example.mst.messages;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MSTMessageTest {
+    /** Layout before the varint encoding: type byte, five longs and a double, whatever the type. */
+    private static final int FIXED_LAYOUT_BYTES = 1 + 6 * 8;
+
+    /** Zigzag boundaries: the largest values of each varint length and their negations. */
+    private static final long[] IDS = {
+            0, 1, -1, 2, -2, 63, -64, 64, -65, 8191, -8192, 8192, -8193,
+            Integer.MAX_VALUE, Integer.MIN_VALUE, (1L << 32) + 7, -(1L << 40),
+            Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1
+    };
+
+    private static final double[] WEIGHTS = {
+            0.0, -0.0, 1.5, -3.25, Double.MIN_VALUE, Double.MAX_VALUE, Double.POSITIVE_INFINITY
+    };
+
+    @Test
+    public void announceRoundTrip() throws IOException {
+        for (long v : IDS) {
+            for (long r : IDS) check(MSTMessage.announce(v, r));
+        }
+    }
+
+    @Test
+    public void candidateRoundTrip() throws IOException {
+        for (long a : IDS) {
+            for (long b : IDS) {
+                for (double w : WEIGHTS) {
+                    // the delta tieB - tieA is only small for a <= b, but must survive any pair
+                    check(MSTMessage.candidate(a, b, w, Math.min(a, b), Math.max(a, b)));
+                    check(MSTMessage.candidate(b, a, w, a, b));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parentQueryRoundTrip() throws IOException {
+        for (long v : IDS) check(MSTMessage.parentQuery(v));
+    }
+
+    @Test
+    public void parentReplyRoundTrip() throws IOException {
+        for (long v : IDS) {
+            for (long p : IDS) check(MSTMessage.parentReply(v, p));
+        }
+    }
+
+    @Test
+    public void contractEdgeRoundTrip() throws IOException {
+        for (long r : IDS) {
+            for (long a : IDS) {
+                for (double w : WEIGHTS) check(MSTMessage.contractEdge(r, w, Math.min(a, r), Math.max(a, r)));
+            }
+        }
+    }
+
+    @Test
+    public void componentStatsRoundTrip() throws IOException {
+        for (long n : IDS) {
+            for (double w : WEIGHTS) check(MSTMessage.componentStats(n, w));
+        }
+    }
+
+    @Test
+    public void readClearsFieldsOfThePreviousMessage() throws IOException {
+        MSTMessage reused = MSTMessage.candidate(1, 2, 3.0, 4, 5);
+        reused.readFields(input(encode(MSTMessage.parentQuery(-9))));
+        assertFields(MSTMessage.parentQuery(-9), reused);
+    }
+
+    @Test
+    public void neverLargerThanTheFixedLayout() throws IOException {
+        // worst case: a candidate whose four ids all need ten varint bytes
+        MSTMessage worst = MSTMessage.candidate(Long.MIN_VALUE, Long.MIN_VALUE, 1.0, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertTrue(encode(worst).length <= FIXED_LAYOUT_BYTES);
+
+        // one vertex's traffic in a round on ids below 2^20: an announce per edge (degree 4 here),
+        // a candidate, a parent query and its reply
+        long v = 1_000_000L, root = 999_000L, nbr = 1_000_123L;
+        int bytes = 4 * encode(MSTMessage.announce(v, root)).length
+                + encode(MSTMessage.candidate(root, nbr, 0.25, v, nbr)).length
+                + encode(MSTMessage.parentQuery(v)).length
+                + encode(MSTMessage.parentReply(v, root)).length;
+        assertTrue(bytes + " bytes for 7 messages", bytes * 3 < 7 * FIXED_LAYOUT_BYTES);
+    }
+
+    @Test(expected = IOException.class)
+    public void unknownTypeIsRejected() throws IOException {
+        new MSTMessage().readFields(input(new byte[]{42}));
+    }
+
+    @Test(expected = IOException.class)
+    public void overlongVarintIsRejected() throws IOException {
+        byte[] bytes = new byte[12];
+        bytes[0] = MSTMessage.PARENT_QUERY;
+        for (int i = 1; i < bytes.length; i++) bytes[i] = (byte) 0x80;
+        new MSTMessage().readFields(input(bytes));
+    }
+
+    @Test
+    public void truncatedMessageFails() throws IOException {
+        byte[] full = encode(MSTMessage.candidate(5, 6, 2.0, 5, 6));
+        byte[] cut = new byte[full.length - 1];
+        System.arraycopy(full, 0, cut, 0, cut.length);
+        try {
+            new MSTMessage().readFields(input(cut));
+            fail("read past the end of a truncated candidate");
+        } catch (EOFException expected) {
+            // the stream, not the decoder, reports the short read
+        }
+    }
+
+    private static void check(MSTMessage m) throws IOException {
+        byte[] bytes = encode(m);
+        assertEquals("serializedSize of type " + m.type, bytes.length, m.serializedSize());
+        assertTrue(bytes.length <= FIXED_LAYOUT_BYTES);
+
+        MSTMessage read = new MSTMessage();
+        DataInputStream in = input(bytes);
+        read.readFields(in);
+        assertEquals("trailing bytes after type " + m.type, -1, in.read());
+        assertFields(m, read);
+
+        MSTMessage copy = new MSTMessage();
+        copy.set(read);
+        assertArrayEquals(bytes, encode(copy));
+    }
+
+    private static void assertFields(MSTMessage expected, MSTMessage actual) {
+        assertEquals(expected.type, actual.type);
+        assertEquals(expected.srcVertexId, actual.srcVertexId);
+        assertEquals(expected.srcRootId, actual.srcRootId);
+        assertEquals(expected.targetRootId, actual.targetRootId);
+        assertEquals(Double.doubleToRawLongBits(expected.edgeWeight), Double.doubleToRawLongBits(actual.edgeWeight));
+        assertEquals(expected.tieA, actual.tieA);
+        assertEquals(expected.tieB, actual.tieB);
+    }
+
+    private static byte[] encode(MSTMessage m) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            m.write(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static DataInputStream input(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+}